@@ -0,0 +1,220 @@
+package com.example.vaadin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Imports customers from a CSV file with a {@code name,email} row per
+ * customer. The file is read one line at a time and written in batches, so
+ * memory use doesn't depend on the size of the file.
+ */
+@Service
+public class CustomerImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImporter.class);
+
+    private static final String INSERT_SQL = "insert into customer (name, email) values (?, ?)";
+
+    // the length of the customer table's varchar columns
+    private static final int MAX_LENGTH = 255;
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+    // only the first few problems are kept, a broken file could have millions
+    private static final int MAX_ERRORS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+
+    public CustomerImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            TaskExecutor taskExecutor, @Value("${customers.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * How far an import got, reported after every batch.
+     *
+     * @param fraction
+     *            share of the file read so far, between 0 and 1
+     */
+    public record Progress(long imported, long rejected, double fraction, long rowsPerSecond) {
+    }
+
+    /**
+     * Outcome of a finished import, with the first rows that were rejected.
+     */
+    public record Result(long imported, long rejected, long rowsPerSecond, List<String> errors) {
+    }
+
+    /**
+     * Imports the file on a background thread and deletes it afterwards. The
+     * listener is called from that thread; if it throws, the import goes on.
+     */
+    public CompletableFuture<Result> importCsv(Path file, Consumer<Progress> progressListener) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return run(file, progressListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete uploaded file {}", file, e);
+                }
+            }
+        }, taskExecutor);
+    }
+
+    private Result run(Path file, Consumer<Progress> progressListener) throws IOException {
+        var start = System.nanoTime();
+        var fileSize = Math.max(1, Files.size(file));
+        var batch = new ArrayList<Object[]>(batchSize);
+        var errors = new ArrayList<String>();
+        long imported = 0;
+        long rejected = 0;
+        long charsRead = 0;
+        long lineNumber = 0;
+
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                // counts characters, not bytes, which is close enough for a progress bar
+                charsRead += line.length() + 1;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+
+                var error = validate(line, batch);
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < MAX_ERRORS) {
+                        errors.add("Line " + lineNumber + ": " + error);
+                    }
+                }
+
+                if (batch.size() == batchSize) {
+                    imported += insert(batch);
+                    report(progressListener, new Progress(imported, rejected,
+                            Math.min(1, (double) charsRead / fileSize), rowsPerSecond(imported, start)));
+                }
+            }
+        }
+        imported += insert(batch);
+        report(progressListener, new Progress(imported, rejected, 1, rowsPerSecond(imported, start)));
+
+        var seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Imported {} customers in {} s ({} rows/s), rejected {} rows", imported,
+                String.format("%.1f", seconds), rowsPerSecond(imported, start), rejected);
+        return new Result(imported, rejected, rowsPerSecond(imported, start), List.copyOf(errors));
+    }
+
+    // adds the row to the batch if it's valid, otherwise returns what's wrong with it
+    private static String validate(String line, List<Object[]> batch) {
+        var fields = parseLine(line);
+        if (fields == null) {
+            return "unterminated quote";
+        }
+        if (fields.size() != 2) {
+            return "expected name and email, found " + fields.size() + " values";
+        }
+        var name = fields.get(0).strip();
+        var email = fields.get(1).strip();
+        if (name.isEmpty()) {
+            return "name is missing";
+        }
+        if (name.length() > MAX_LENGTH || email.length() > MAX_LENGTH) {
+            return "values can be at most " + MAX_LENGTH + " characters";
+        }
+        if (!EMAIL.matcher(email).matches()) {
+            return "'" + email + "' is not an email address";
+        }
+        batch.add(new Object[] { name, email });
+        return null;
+    }
+
+    // only shows how far the import got, so a failing listener mustn't stop it
+    private static void report(Consumer<Progress> progressListener, Progress progress) {
+        try {
+            progressListener.accept(progress);
+        } catch (RuntimeException e) {
+            log.debug("Progress listener failed", e);
+        }
+    }
+
+    // one jdbc batch and one commit per call, instead of one statement and
+    // entity per row; without the transaction every row would commit by itself
+    private int insert(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch));
+        var size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private static boolean isHeader(String line) {
+        return line.strip().toLowerCase(Locale.ROOT).replace("\"", "").equals("name,email");
+    }
+
+    private static long rowsPerSecond(long rows, long start) {
+        var seconds = (System.nanoTime() - start) / 1e9;
+        return seconds > 0 ? Math.round(rows / seconds) : 0;
+    }
+
+    // splits a csv line at commas; values can be quoted to contain commas,
+    // and "" in a quoted value is a quote. returns null for a missing closing
+    // quote (values spanning several lines aren't supported)
+    static List<String> parseLine(String line) {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
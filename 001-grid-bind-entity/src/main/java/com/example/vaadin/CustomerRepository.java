@@ -1,9 +1,14 @@
 package com.example.vaadin;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 /**
  * JPA repository for fetching {@link Customer} entities from the database
  */
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    // a slice is one page of rows, without the count query a page would run
+    Slice<Customer> findAllBy(Pageable pageable);
 }
\ No newline at end of file
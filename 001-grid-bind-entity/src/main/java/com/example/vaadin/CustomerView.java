@@ -1,10 +1,22 @@
 package com.example.vaadin;
 
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.upload.Upload;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.streams.UploadHandler;
+
+import java.util.concurrent.CompletionException;
+
+import static com.vaadin.flow.spring.data.VaadinSpringDataHelpers.toSpringPageRequest;
 
 /**
  * View where we display a list of all customers in a {@link Grid} component.
@@ -14,16 +26,18 @@ import com.vaadin.flow.router.Route;
 @Menu(title = "Customers", icon = "vaadin:users")
 public class CustomerView extends VerticalLayout {
 
-    public CustomerView(CustomerRepository repository) {
+    public CustomerView(CustomerRepository repository, CustomerImporter importer) {
         // create the Customer grid
         var grid = new CustomerGrid();
 
-        // add the grid to our view and make it consume all the space
+        // add the import bar and the grid to our view, the grid consumes the rest of the space
+        add(new ImportBar(importer, grid));
         addAndExpand(grid);
 
-        // fetch all of the customers and add them to our grid
-        var customers = repository.findAll();
-        grid.setItems(customers);
+        // an import can add hundreds of thousands of customers, so the grid
+        // fetches one page at a time from the database instead of all of them
+        grid.setItems(query -> repository.findAllBy(toSpringPageRequest(query)).stream(),
+                query -> Math.toIntExact(repository.count()));
     }
 
     class CustomerGrid extends Grid<Customer> {
@@ -41,6 +55,67 @@ public class CustomerView extends VerticalLayout {
         }
     }
 
+    /**
+     * Uploads a CSV file of customers and shows the import's progress. The
+     * import runs on a background thread and sends its progress to the browser
+     * with server push, enabled by {@code @Push} on {@link Application}.
+     */
+    class ImportBar extends HorizontalLayout {
+
+        private final ProgressBar progressBar = new ProgressBar();
+        private final Span status = new Span();
+
+        ImportBar(CustomerImporter importer, Grid<Customer> grid) {
+            // the upload is stored in a temporary file, never in memory;
+            // the importer deletes it when done
+            var upload = new Upload(UploadHandler.toTempFile((metadata, file) -> {
+                var ui = getUI().orElseThrow();
+                access(ui, () -> {
+                    progressBar.setValue(0);
+                    progressBar.setVisible(true);
+                    status.setText("Importing " + metadata.fileName() + "...");
+                });
+                // ui.access() runs the update with the session locked, and
+                // push sends it to the browser right away
+                importer.importCsv(file.toPath(), progress -> access(ui, () -> {
+                    progressBar.setValue(progress.fraction());
+                    status.setText("%,d imported, %,d rejected, %,d rows/s".formatted(progress.imported(),
+                            progress.rejected(), progress.rowsPerSecond()));
+                })).whenComplete((result, error) -> access(ui, () -> {
+                    progressBar.setVisible(false);
+                    if (error != null) {
+                        var cause = error instanceof CompletionException ? error.getCause() : error;
+                        status.setText("Import failed: " + cause.getMessage());
+                    } else {
+                        status.setText("%,d imported, %,d rejected, %,d rows/s".formatted(result.imported(),
+                                result.rejected(), result.rowsPerSecond()));
+                        status.setTitle(String.join("\n", result.errors()));
+                    }
+                    grid.getDataProvider().refreshAll();
+                }));
+            }));
+            upload.setAcceptedFileTypes("text/csv", ".csv");
+            upload.setMaxFiles(1);
+            upload.setDropLabel(new Span("CSV with name,email per line"));
+
+            progressBar.setVisible(false);
+            progressBar.setWidth("15em");
+
+            add(upload, progressBar, status);
+            setAlignItems(Alignment.CENTER);
+        }
+
+        // the user may close the tab while the import runs; the import goes
+        // on, there's just nobody left to show its progress to
+        private static void access(UI ui, Command command) {
+            try {
+                ui.access(command);
+            } catch (UIDetachedException e) {
+                // nothing to update
+            }
+        }
+    }
+
     /**
      * This is a minimal example used for focusing on the high-level concepts. Use this to
      * get an overview of the feature, but refer to the code above for the full example.
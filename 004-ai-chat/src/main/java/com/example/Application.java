@@ -4,12 +4,18 @@ import com.vaadin.flow.component.page.ColorScheme;
 import com.vaadin.flow.theme.aura.Aura;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.vaadin.flow.component.dependency.StyleSheet;
 import com.vaadin.flow.component.page.AppShellConfigurator;
 import com.vaadin.flow.component.page.Push;
 
 @SpringBootApplication
+// registers the @ConfigurationProperties records
+@ConfigurationPropertiesScan
 // loads vaadin's aura theme, forced into dark mode
 @StyleSheet(Aura.STYLESHEET)
 @ColorScheme(ColorScheme.Value.DARK)
@@ -17,10 +23,20 @@ import com.vaadin.flow.component.page.Push;
 // lets the server push ui updates to the browser without a page request;
 // needed for streaming ai responses token by token
 @Push
+// runs the @Scheduled background jobs
+@EnableScheduling
 public class Application implements AppShellConfigurator {
 
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        var application = new SpringApplication(Application.class);
+        // spring.threads.virtual.enabled covers spring's own threads; reactor's
+        // boundedElastic scheduler, which runs the tool calls of streamed ai
+        // answers, follows it through a system property that must be set
+        // before reactor creates its schedulers
+        application.addListeners((ApplicationListener<ApplicationEnvironmentPreparedEvent>) event -> System.setProperty(
+                "reactor.schedulers.defaultBoundedElasticOnVirtualThreads",
+                event.getEnvironment().getProperty("spring.threads.virtual.enabled", "false")));
+        application.run(args);
     }
 
 }
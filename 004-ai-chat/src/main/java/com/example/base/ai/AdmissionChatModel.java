@@ -0,0 +1,76 @@
+package com.example.base.ai;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Makes every model request of one chat session wait for a slot from the
+ * {@link AssistantAdmission}. A request that is turned away is answered with
+ * the reason instead of failing.
+ */
+public class AdmissionChatModel implements ChatModel {
+
+    /**
+     * The finish reason of the answer to a request that was turned away.
+     */
+    public static final String REJECTED = "REJECTED";
+
+    private final ChatModel delegate;
+    private final AssistantAdmission admission;
+    private final Object session;
+    private final IntConsumer queuePosition;
+
+    public AdmissionChatModel(ChatModel delegate, AssistantAdmission admission, Object session,
+            IntConsumer queuePosition) {
+        this.delegate = delegate;
+        this.admission = admission;
+        this.session = session;
+        this.queuePosition = queuePosition;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        AssistantAdmission.Permit permit;
+        try {
+            permit = Objects.requireNonNull(admission.acquire(session, queuePosition).block());
+        } catch (AdmissionRejectedException e) {
+            return toResponse(e.getMessage());
+        }
+        try {
+            return delegate.call(prompt);
+        } finally {
+            permit.release();
+        }
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        // the slot is released however the stream ends, including when the
+        // user leaves while it runs
+        return Flux.usingWhen(admission.acquire(session, queuePosition),
+                        permit -> delegate.stream(prompt),
+                        permit -> Mono.fromRunnable(permit::release))
+                .onErrorResume(AdmissionRejectedException.class, e -> Mono.just(toResponse(e.getMessage())));
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    private static ChatResponse toResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text),
+                ChatGenerationMetadata.builder().finishReason(REJECTED).build())));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.base.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Limits for the model requests in flight, read from
+ * {@code assistant.admission.*}.
+ *
+ * @param maxConcurrent
+ *            model requests running at the same time for all users together
+ * @param maxPerSession
+ *            model requests running at the same time for one user
+ * @param maxQueued
+ *            requests waiting for a free slot; more are turned away right away
+ * @param queueTimeout
+ *            how long a request waits for a slot before it is turned away
+ */
+@ConfigurationProperties("assistant.admission")
+public record AdmissionProperties(@DefaultValue("20") int maxConcurrent, @DefaultValue("1") int maxPerSession,
+        @DefaultValue("200") int maxQueued, @DefaultValue("30s") Duration queueTimeout) {
+}
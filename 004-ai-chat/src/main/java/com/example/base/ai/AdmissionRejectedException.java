@@ -0,0 +1,12 @@
+package com.example.base.ai;
+
+/**
+ * Thrown when the {@link AssistantAdmission} turns a model request away. The
+ * message is meant for the user.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
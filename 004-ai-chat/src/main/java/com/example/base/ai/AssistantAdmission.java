@@ -0,0 +1,221 @@
+package com.example.base.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Limits how many model requests run at once, overall and per user. Requests
+ * beyond the limits wait in a first-come, first-served queue, skipping only
+ * those whose own user is at the limit, and are turned away when the queue is
+ * full or they waited too long. Waiting requests are told their place in line.
+ */
+@Component
+public class AssistantAdmission {
+
+    private static final String BUSY_MESSAGE =
+            "The assistant is busy right now, please try again in a moment.";
+
+    private final AdmissionProperties properties;
+
+    // guarded by this
+    private final Deque<Ticket> queue = new ArrayDeque<>();
+    private final Map<Object, Integer> runningBySession = new HashMap<>();
+    private int running;
+
+    private final Timer waitTime;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    AssistantAdmission(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("assistant.admission.queued", this, AssistantAdmission::queued)
+                .description("Model requests waiting for a free slot")
+                .register(meterRegistry);
+        Gauge.builder("assistant.admission.running", this, AssistantAdmission::running)
+                .description("Model requests running")
+                .register(meterRegistry);
+        waitTime = Timer.builder("assistant.admission.wait")
+                .description("Time model requests waited for a free slot")
+                .register(meterRegistry);
+        rejectedQueueFull = rejected(meterRegistry, "queue-full");
+        rejectedTimeout = rejected(meterRegistry, "timeout");
+    }
+
+    /**
+     * Waits for a free slot for a model request. The returned permit must be
+     * released when the request is done; cancelling the subscription gives up
+     * the place in line.
+     *
+     * @param session
+     *            identifies the user, for the per-user limit
+     * @param queuePosition
+     *            told the place in line, 1 for next, whenever it changes while
+     *            waiting, and 0 once the wait is over
+     * @return the permit, or an {@link AdmissionRejectedException} if the
+     *         queue is full or the wait timed out
+     */
+    public Mono<Permit> acquire(Object session, IntConsumer queuePosition) {
+        // reactor drops a permit that arrives as the subscriber cancels; unless
+        // it is released, its slot stays taken forever
+        return Mono.defer(() -> {
+            var ticket = new Ticket(session, queuePosition, System.nanoTime(), new CompletableFuture<>());
+            List<Ticket> waiting;
+            synchronized (this) {
+                if (canRun(session)) {
+                    return Mono.just(start(ticket));
+                }
+                if (queue.size() >= properties.maxQueued()) {
+                    rejectedQueueFull.increment();
+                    return Mono.error(new AdmissionRejectedException(BUSY_MESSAGE));
+                }
+                queue.add(ticket);
+                waiting = List.copyOf(queue);
+            }
+            announcePositions(waiting);
+
+            ticket.permit().orTimeout(properties.queueTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((permit, failure) -> {
+                        if (failure != null) {
+                            // timed out or cancelled: leave the line, the ones behind move up
+                            if (failure instanceof TimeoutException) {
+                                rejectedTimeout.increment();
+                            }
+                            ticket.queuePosition().accept(0);
+                            leave(ticket);
+                        }
+                    });
+            // the permit is handed over on the thread that released the slot;
+            // the waiter's request must not run there
+            return Mono.fromFuture(ticket.permit(), false)
+                    .publishOn(Schedulers.boundedElastic())
+                    .onErrorMap(TimeoutException.class, e -> new AdmissionRejectedException(BUSY_MESSAGE));
+        }).doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private synchronized int queued() {
+        return queue.size();
+    }
+
+    private synchronized int running() {
+        return running;
+    }
+
+    // guarded by this
+    private boolean canRun(Object session) {
+        return running < properties.maxConcurrent()
+                && runningBySession.getOrDefault(session, 0) < properties.maxPerSession();
+    }
+
+    // guarded by this
+    private Permit start(Ticket ticket) {
+        running++;
+        runningBySession.merge(ticket.session(), 1, Integer::sum);
+        waitTime.record(System.nanoTime() - ticket.created(), TimeUnit.NANOSECONDS);
+        return new Permit(this, ticket.session());
+    }
+
+    private void release(Object session) {
+        Map<Ticket, Permit> started = new LinkedHashMap<>();
+        List<Ticket> waiting;
+        synchronized (this) {
+            releaseSlot(session);
+            // hands the freed slot to the first ticket that may run
+            var iterator = queue.iterator();
+            while (iterator.hasNext() && running < properties.maxConcurrent()) {
+                var ticket = iterator.next();
+                if (canRun(ticket.session())) {
+                    iterator.remove();
+                    started.put(ticket, start(ticket));
+                }
+            }
+            waiting = List.copyOf(queue);
+        }
+        // completing runs the waiter's callbacks and listeners may update the
+        // ui, so both happen outside the lock
+        started.forEach((ticket, permit) -> {
+            if (ticket.permit().complete(permit)) {
+                ticket.queuePosition().accept(0);
+            } else {
+                // it timed out or was cancelled just now
+                permit.release();
+            }
+        });
+        announcePositions(waiting);
+    }
+
+    // guarded by this
+    private void releaseSlot(Object session) {
+        running--;
+        runningBySession.computeIfPresent(session, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void leave(Ticket ticket) {
+        List<Ticket> waiting;
+        synchronized (this) {
+            if (!queue.remove(ticket)) {
+                return;
+            }
+            waiting = List.copyOf(queue);
+        }
+        announcePositions(waiting);
+    }
+
+    private static void announcePositions(List<Ticket> waiting) {
+        for (int i = 0; i < waiting.size(); i++) {
+            waiting.get(i).queuePosition().accept(i + 1);
+        }
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("assistant.admission.rejected")
+                .description("Model requests turned away")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record Ticket(Object session, IntConsumer queuePosition, long created,
+            CompletableFuture<Permit> permit) {
+    }
+
+    /**
+     * A slot for one model request, held until {@link #release()}.
+     */
+    public static final class Permit {
+
+        private final AssistantAdmission admission;
+        private final Object session;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AssistantAdmission admission, Object session) {
+            this.admission = admission;
+            this.session = session;
+        }
+
+        /**
+         * Frees the slot for the next request in line. Releasing twice has no
+         * effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                admission.release(session);
+            }
+        }
+    }
+}
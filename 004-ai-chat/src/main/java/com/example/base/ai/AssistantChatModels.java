@@ -0,0 +1,106 @@
+package com.example.base.ai;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.VaadinSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Builds the model each chat session talks to: the application's
+ * {@link ChatModel} wrapped in the per-session behavior the assistant needs.
+ */
+@Component
+public class AssistantChatModels {
+
+    private final ChatModel chatModel;
+    private final ChatMemoryProperties memoryProperties;
+    private final StreamingProperties streamingProperties;
+    private final AssistantAdmission admission;
+    private final AssistantResponseCache responseCache;
+    private final boolean responseCacheEnabled;
+    private final List<FastPathIntent> fastPathIntents;
+    private final MeterRegistry meterRegistry;
+
+    // all FastPathIntent beans are tried in @Order; with the fast path turned
+    // off none are, so every message goes to the model
+    AssistantChatModels(ChatModel chatModel, ChatMemoryProperties memoryProperties,
+            StreamingProperties streamingProperties, AssistantAdmission admission,
+            AssistantResponseCache responseCache, ResponseCacheProperties responseCacheProperties,
+            ObjectProvider<FastPathIntent> fastPathIntents,
+            @Value("${assistant.fast-path.enabled:true}") boolean fastPathEnabled, MeterRegistry meterRegistry) {
+        this.chatModel = chatModel;
+        this.memoryProperties = memoryProperties;
+        this.streamingProperties = streamingProperties;
+        this.admission = admission;
+        this.responseCache = responseCache;
+        this.responseCacheEnabled = responseCacheProperties.enabled();
+        this.fastPathIntents = fastPathEnabled ? fastPathIntents.orderedStream().toList() : List.of();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns a new model for one chat session. Don't share it between sessions,
+     * it keeps state about the conversation.
+     */
+    public ChatModel forSession() {
+        return forSession(position -> {
+        });
+    }
+
+    /**
+     * Returns a new model for one chat session, like {@link #forSession()},
+     * that reports its place in line while its requests wait for the model.
+     *
+     * @param queuePosition
+     *            told the place in line, 1 for next, and 0 once the request
+     *            runs or is turned away; called from background threads
+     */
+    public ChatModel forSession(IntConsumer queuePosition) {
+        // the per-user limit counts all tabs of a browser session together
+        var user = Objects.requireNonNullElseGet(VaadinSession.getCurrent(), Object::new);
+        var model = new BoundedMemoryChatModel(chatModel, memoryProperties, meterRegistry);
+        var ui = UI.getCurrent();
+        if (ui != null) {
+            // lives as long as the ui, like the chat that uses the model
+            memories(ui).add(model);
+        }
+        var coalesced = new CoalescingChatModel(model, streamingProperties, meterRegistry);
+        ChatModel admitted = new AdmissionChatModel(coalesced, admission, user, queuePosition);
+        // cached answers don't wait in line either
+        var cached = responseCacheEnabled ? new CachingChatModel(admitted, responseCache) : admitted;
+        // the fast path comes first, so a recognized command neither waits in
+        // line nor pays for summarizing the history; its answer is one frame already
+        return new FastPathChatModel(cached, fastPathIntents, meterRegistry);
+    }
+
+    /**
+     * Returns the size of the conversation of every chat session opened in the
+     * UI. Call it while holding the UI's session lock.
+     */
+    public static List<ChatMemorySize> memorySizes(UI ui) {
+        var memories = ComponentUtil.getData(ui, SessionMemories.class);
+        return memories != null ? memories.stream().map(BoundedMemoryChatModel::memorySize).toList() : List.of();
+    }
+
+    private static SessionMemories memories(UI ui) {
+        var memories = ComponentUtil.getData(ui, SessionMemories.class);
+        if (memories == null) {
+            memories = new SessionMemories();
+            ComponentUtil.setData(ui, SessionMemories.class, memories);
+        }
+        return memories;
+    }
+
+    // the chat memories of one ui's sessions, guarded by the ui's session lock
+    private static final class SessionMemories extends ArrayList<BoundedMemoryChatModel> {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.base.ai;
+
+/**
+ * The version of the data the assistant answers questions about. It goes up
+ * with every write, so an answer given at one version is still right as long
+ * as the version hasn't moved.
+ */
+public interface AssistantDataVersion {
+
+    long current();
+}
@@ -0,0 +1,88 @@
+package com.example.base.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Answers to opening questions, shared by all chat sessions. An answer is
+ * keyed by the normalized question, the {@link AssistantDataVersion} it was
+ * given at and the date, so any write, and midnight for answers about "today",
+ * makes all earlier answers unreachable and the size bound evicts them over
+ * time.
+ */
+@Component
+public class AssistantResponseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s.!?]+$");
+
+    private final AssistantDataVersion dataVersion;
+    private final Cache<Key, Answer> cache;
+    private final Timer saved;
+
+    AssistantResponseCache(AssistantDataVersion dataVersion, ResponseCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.dataVersion = dataVersion;
+        cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .recordStats()
+                .build();
+        // hit and miss counts show up as cache.gets{cache=assistant.responses}
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "assistant.responses");
+        saved = Timer.builder("assistant.response-cache.saved")
+                .description("Time the model took for an answer that was served from the cache instead")
+                .register(meterRegistry);
+    }
+
+    Version version() {
+        return new Version(dataVersion.current(), LocalDate.now());
+    }
+
+    /**
+     * Returns the cached answer to the question at the current version, or
+     * {@code null} if there is none.
+     */
+    @Nullable String get(String question) {
+        var answer = cache.getIfPresent(new Key(normalize(question), version()));
+        if (answer == null) {
+            return null;
+        }
+        saved.record(answer.modelTime());
+        return answer.text();
+    }
+
+    /**
+     * Caches an answer the model gave while the data and the date stayed at
+     * {@code version}.
+     */
+    void put(String question, Version version, String answer, Duration modelTime) {
+        cache.put(new Key(normalize(question), version), new Answer(answer, modelTime));
+    }
+
+    // "What's due today?" and "what's due  today" are the same question
+    private static String normalize(String question) {
+        var text = WHITESPACE.matcher(question.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(text).replaceAll("");
+    }
+
+    // what an answer depends on besides the question: the orders, and the
+    // date for questions like "what's due today?"
+    record Version(long dataVersion, LocalDate date) {
+    }
+
+    private record Key(String question, Version version) {
+    }
+
+    private record Answer(String text, Duration modelTime) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.base.ai;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jspecify.annotations.Nullable;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the prompts of one chat session from growing with every turn. Only the
+ * most recent messages are sent as they are, long tool results are cut off,
+ * and everything older is replaced by a summary that the model writes itself
+ * and that is only rewritten every few turns.
+ */
+public class BoundedMemoryChatModel implements ChatModel {
+
+    private static final String SUMMARY_INSTRUCTIONS = """
+            Summarize the following conversation between a user and an order management assistant
+            in a few sentences. Keep order ids, customer names and any changes that were made.
+            """;
+
+    // enough messages to find the end of the summarized part again, even when
+    // a short message like "yes" appears more than once
+    private static final int SUMMARIZED_TAIL = 3;
+
+    private final ChatModel delegate;
+    private final ChatMemoryProperties properties;
+    private final DistributionSummary promptSize;
+
+    // guarded by this; the lock is never held during a model call
+    private String summary = "";
+    // fingerprints of the last messages folded into the summary; empty while
+    // there is no summary
+    private List<Integer> summarizedTail = List.of();
+    // the size of the history as of the last turn
+    private ChatMemorySize historySize = new ChatMemorySize(0, 0);
+
+    public BoundedMemoryChatModel(ChatModel delegate, ChatMemoryProperties properties,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.promptSize = DistributionSummary.builder("assistant.prompt.chars")
+                .description("Characters sent to the model per turn")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        var turn = plan(prompt);
+        return delegate.call(bound(turn.toSummarize().isEmpty() ? turn : summarized(turn)));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            var turn = plan(prompt);
+            if (turn.toSummarize().isEmpty()) {
+                return delegate.stream(bound(turn));
+            }
+            // summarizing is a blocking model call, which mustn't run on the
+            // thread that subscribes, usually the ui's
+            return Mono.fromCallable(() -> bound(summarized(turn)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapMany(delegate::stream);
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    /**
+     * Returns the size of the session's conversation as of its last turn: the
+     * whole history, not just the part sent to the model, and the summary.
+     */
+    public synchronized ChatMemorySize memorySize() {
+        return new ChatMemorySize(historySize.messages(), historySize.chars() + summary.length());
+    }
+
+    // one turn's conversation, split at the end of the summarized part, and
+    // the messages to fold into the summary before it is sent, if any
+    private record Turn(Prompt prompt, List<Message> system, List<Message> conversation, String summary,
+            int summarizedMessages, List<Message> toSummarize) {
+    }
+
+    private synchronized Turn plan(Prompt prompt) {
+        var system = new ArrayList<Message>();
+        var conversation = new ArrayList<Message>();
+        for (var message : prompt.getInstructions()) {
+            (message.getMessageType() == MessageType.SYSTEM ? system : conversation).add(message);
+        }
+        historySize = new ChatMemorySize(conversation.size(),
+                conversation.stream().mapToLong(BoundedMemoryChatModel::size).sum());
+
+        // the history comes from the orchestrator, which may have cleared or
+        // trimmed it since the last turn, so the summarized part is found by
+        // its messages, not by a count
+        var summarizedMessages = endOfSummarized(conversation);
+        if (summarizedMessages < 0) {
+            // the summarized messages are gone, start over
+            summary = "";
+            summarizedTail = List.of();
+            summarizedMessages = 0;
+        }
+
+        var windowStart = Math.max(0, conversation.size() - properties.maxMessages());
+        // a tool result must stay together with the assistant message that called the tool
+        while (windowStart > 0 && windowStart < conversation.size()
+                && conversation.get(windowStart).getMessageType() == MessageType.TOOL) {
+            windowStart--;
+        }
+        // summarizing on every turn would cost a model call per turn, so the
+        // window may grow by summarizeEvery messages before they are folded in
+        var summaryDue = windowStart > summarizedMessages
+                && (summarizedMessages == 0 || windowStart - summarizedMessages >= properties.summarizeEvery());
+        var toSummarize = summaryDue
+                ? List.copyOf(conversation.subList(summarizedMessages, windowStart))
+                : List.<Message>of();
+        return new Turn(prompt, system, conversation, summary, summarizedMessages, toSummarize);
+    }
+
+    // runs the model call without the lock, so the session's other turns
+    // don't wait for it, and then remembers the new summary
+    private Turn summarized(Turn turn) {
+        var newSummary = summarize(turn.summary(), turn.toSummarize());
+        var windowStart = turn.summarizedMessages() + turn.toSummarize().size();
+        var newTail = turn.conversation().subList(Math.max(0, windowStart - SUMMARIZED_TAIL), windowStart).stream()
+                .map(BoundedMemoryChatModel::fingerprint)
+                .toList();
+        synchronized (this) {
+            summary = newSummary;
+            summarizedTail = newTail;
+        }
+        return new Turn(turn.prompt(), turn.system(), turn.conversation(), newSummary, windowStart, List.of());
+    }
+
+    private Prompt bound(Turn turn) {
+        var messages = new ArrayList<>(turn.system());
+        if (turn.summarizedMessages() > 0) {
+            messages.add(new SystemMessage("Summary of the earlier conversation: " + turn.summary()));
+        }
+        turn.conversation().subList(turn.summarizedMessages(), turn.conversation().size()).stream()
+                .map(this::truncateToolResults)
+                .forEach(messages::add);
+
+        promptSize.record(messages.stream().mapToInt(message -> length(message.getText())).sum());
+        return new Prompt(messages, turn.prompt().getOptions());
+    }
+
+    // the index after the last summarized message, 0 without a summary, or -1
+    // if the summarized messages aren't in the conversation anymore
+    private int endOfSummarized(List<Message> conversation) {
+        if (summarizedTail.isEmpty()) {
+            return 0;
+        }
+        var fingerprints = conversation.stream().map(BoundedMemoryChatModel::fingerprint).toList();
+        for (int start = fingerprints.size() - summarizedTail.size(); start >= 0; start--) {
+            if (fingerprints.subList(start, start + summarizedTail.size()).equals(summarizedTail)) {
+                return start + summarizedTail.size();
+            }
+        }
+        return -1;
+    }
+
+    private static int fingerprint(Message message) {
+        return switch (message) {
+            case ToolResponseMessage toolResponses -> Objects.hash(MessageType.TOOL, toolResponses.getResponses());
+            case AssistantMessage assistant -> Objects.hash(MessageType.ASSISTANT, assistant.getText(),
+                    assistant.getToolCalls());
+            default -> Objects.hash(message.getMessageType(), message.getText());
+        };
+    }
+
+    private String summarize(String earlierSummary, List<Message> messages) {
+        var transcript = messages.stream()
+                .filter(message -> message.getMessageType() != MessageType.TOOL)
+                .map(message -> message.getMessageType() + ": " + message.getText())
+                .collect(Collectors.joining("\n"));
+        if (!earlierSummary.isEmpty()) {
+            transcript = "Earlier summary: " + earlierSummary + "\n" + transcript;
+        }
+        var response = delegate.call(new Prompt(List.of(new SystemMessage(SUMMARY_INSTRUCTIONS),
+                new UserMessage(transcript))));
+        return Objects.requireNonNullElse(response.getResult().getOutput().getText(), "");
+    }
+
+    private Message truncateToolResults(Message message) {
+        if (!(message instanceof ToolResponseMessage toolResponses)) {
+            return message;
+        }
+        var max = properties.maxToolResultChars();
+        return new ToolResponseMessage(toolResponses.getResponses().stream()
+                .map(response -> response.responseData().length() <= max ? response
+                        : new ToolResponseMessage.ToolResponse(response.id(), response.name(),
+                                response.responseData().substring(0, max) + "... (truncated)"))
+                .toList());
+    }
+
+    // tool calls and results live outside the message text
+    private static long size(Message message) {
+        return switch (message) {
+            case ToolResponseMessage toolResponses -> toolResponses.getResponses().stream()
+                    .mapToLong(response -> response.responseData().length())
+                    .sum();
+            case AssistantMessage assistant -> length(assistant.getText()) + assistant.getToolCalls().stream()
+                    .mapToLong(call -> call.arguments().length())
+                    .sum();
+            default -> length(message.getText());
+        };
+    }
+
+    private static int length(@Nullable String text) {
+        return text != null ? text.length() : 0;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.base.ai;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Answers a chat's opening question from the {@link AssistantResponseCache}
+ * when the same question was answered before on the same day and the data
+ * hasn't changed since. Only opening questions are cached, later ones depend
+ * on the conversation. An answer during which the version moved, because the
+ * model wrote through a tool, anyone else did or the day ended, is not cached,
+ * and neither are tool call requests or the reply to a request that was turned
+ * away.
+ */
+public class CachingChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final AssistantResponseCache cache;
+
+    public CachingChatModel(ChatModel delegate, AssistantResponseCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        var question = openingQuestion(prompt);
+        if (question == null) {
+            return delegate.call(prompt);
+        }
+        var cached = cache.get(question);
+        if (cached != null) {
+            return toResponse(cached);
+        }
+        var version = cache.version();
+        var start = System.nanoTime();
+        var response = delegate.call(prompt);
+        var result = response.getResult();
+        if (result != null && isAnswer(result) && result.getOutput().getText() != null) {
+            store(question, version, result.getOutput().getText(), start);
+        }
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        var question = openingQuestion(prompt);
+        if (question == null) {
+            return delegate.stream(prompt);
+        }
+        return Flux.defer(() -> {
+            var cached = cache.get(question);
+            if (cached != null) {
+                return Flux.just(toResponse(cached));
+            }
+            var version = cache.version();
+            var start = System.nanoTime();
+            var text = new StringBuilder();
+            var cacheable = new AtomicBoolean(true);
+            return delegate.stream(prompt)
+                    .doOnNext(chunk -> {
+                        var result = chunk.getResult();
+                        if (result == null) {
+                            return;
+                        }
+                        if (!isAnswer(result)) {
+                            cacheable.set(false);
+                        }
+                        if (result.getOutput().getText() != null) {
+                            text.append(result.getOutput().getText());
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (cacheable.get()) {
+                            store(question, version, text.toString(), start);
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    // the question if it is the only message besides the system prompt
+    private static @Nullable String openingQuestion(Prompt prompt) {
+        var conversation = prompt.getInstructions().stream()
+                .filter(message -> message.getMessageType() != MessageType.SYSTEM)
+                .toList();
+        if (conversation.size() != 1 || conversation.getFirst().getMessageType() != MessageType.USER) {
+            return null;
+        }
+        return conversation.getFirst().getText();
+    }
+
+    private static boolean isAnswer(Generation generation) {
+        return !generation.getOutput().hasToolCalls()
+                && !AdmissionChatModel.REJECTED.equals(generation.getMetadata().getFinishReason());
+    }
+
+    private void store(String question, AssistantResponseCache.Version version, String answer, long startNanos) {
+        // a write during the answer, by a tool or anyone else, may have changed it
+        if (!answer.isBlank() && cache.version().equals(version)) {
+            cache.put(question, version, answer, Duration.ofNanos(System.nanoTime() - startNanos));
+        }
+    }
+
+    private static ChatResponse toResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.base.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits for the conversation history sent to the model, read from
+ * {@code assistant.memory.*}.
+ *
+ * @param maxMessages
+ *            number of most recent messages sent as they are; older ones are
+ *            replaced by a summary
+ * @param maxToolResultChars
+ *            tool results longer than this are cut off
+ * @param summarizeEvery
+ *            the summary is rewritten once this many more messages have fallen
+ *            out of the window
+ */
+@ConfigurationProperties("assistant.memory")
+public record ChatMemoryProperties(@DefaultValue("20") int maxMessages,
+        @DefaultValue("2000") int maxToolResultChars, @DefaultValue("10") int summarizeEvery) {
+}
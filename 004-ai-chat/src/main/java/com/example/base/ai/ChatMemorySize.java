@@ -0,0 +1,13 @@
+package com.example.base.ai;
+
+/**
+ * How much of a chat session's conversation the server holds: the history the
+ * chat keeps and the summary of its older part.
+ *
+ * @param messages
+ *            messages in the history, including tool calls and their results
+ * @param chars
+ *            characters of their texts, tool results and the summary
+ */
+public record ChatMemorySize(int messages, long chars) {
+}
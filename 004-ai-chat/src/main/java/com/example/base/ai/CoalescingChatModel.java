@@ -0,0 +1,102 @@
+package com.example.base.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batches the tokens of a streamed answer into frames. Every element of the
+ * stream becomes a UI update pushed to the browser, with a session lock, a
+ * diff and a websocket message each; sending a frame every few dozen
+ * milliseconds instead of every token keeps that cost per answer small while
+ * the text still appears to stream.
+ */
+public class CoalescingChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final StreamingProperties properties;
+
+    // shared by all sessions: the registry hands every instance the same meters
+    private final Counter tokens;
+    private final Counter frames;
+    private final DistributionSummary framesPerAnswer;
+
+    public CoalescingChatModel(ChatModel delegate, StreamingProperties properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.tokens = Counter.builder("assistant.stream.tokens")
+                .description("Streamed chunks received from the model")
+                .register(meterRegistry);
+        this.frames = Counter.builder("assistant.stream.frames")
+                .description("Streamed updates passed on to the chat UI")
+                .register(meterRegistry);
+        this.framesPerAnswer = DistributionSummary.builder("assistant.stream.frames.per.answer")
+                .description("Streamed updates passed on to the chat UI per answer")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        return delegate.call(prompt);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            var answerFrames = new AtomicInteger();
+            var chunks = delegate.stream(prompt).doOnNext(chunk -> tokens.increment());
+            var coalesced = properties.frameInterval().isZero()
+                    ? chunks
+                    : chunks.bufferTimeout(properties.maxTokensPerFrame(), properties.frameInterval())
+                            .concatMapIterable(CoalescingChatModel::merge);
+            return coalesced
+                    .doOnNext(frame -> {
+                        frames.increment();
+                        answerFrames.incrementAndGet();
+                    })
+                    .doOnComplete(() -> framesPerAnswer.record(answerFrames.get()));
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    // joins the text of the chunks into one response that carries the last
+    // chunk's metadata, such as the finish reason and token usage; tool call
+    // requests are passed on as they are
+    private static List<ChatResponse> merge(List<ChatResponse> chunks) {
+        if (chunks.size() == 1 || chunks.stream().anyMatch(CoalescingChatModel::hasToolCalls)) {
+            return chunks;
+        }
+        var text = new StringBuilder();
+        for (var chunk : chunks) {
+            var result = chunk.getResult();
+            if (result != null && result.getOutput().getText() != null) {
+                text.append(result.getOutput().getText());
+            }
+        }
+        var last = chunks.getLast();
+        var lastResult = last.getResult();
+        var generation = lastResult != null
+                ? new Generation(new AssistantMessage(text.toString()), lastResult.getMetadata())
+                : new Generation(new AssistantMessage(text.toString()));
+        return List.of(new ChatResponse(List.of(generation), last.getMetadata()));
+    }
+
+    private static boolean hasToolCalls(ChatResponse chunk) {
+        var result = chunk.getResult();
+        return result != null && result.getOutput().hasToolCalls();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.base.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jspecify.annotations.Nullable;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers the messages a {@link FastPathIntent} recognizes right away and
+ * only sends the rest to the model, saving a model round trip for simple
+ * commands.
+ */
+public class FastPathChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final List<FastPathIntent> intents;
+
+    // shared by all sessions: the registry hands every instance the same meters
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer modelLatency;
+    private final Timer saved;
+
+    public FastPathChatModel(ChatModel delegate, List<FastPathIntent> intents, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.intents = intents;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.modelLatency = Timer.builder("assistant.model.latency")
+                .description("Time the model takes to answer a message the fast path didn't recognize")
+                .register(meterRegistry);
+        this.saved = Timer.builder("assistant.fast-path.saved")
+                .description("Estimated time saved per fast path answer: the mean model latency minus the time taken")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        var answer = fastAnswer(prompt);
+        if (answer != null) {
+            return toResponse(answer);
+        }
+        var sample = Timer.start();
+        var response = delegate.call(prompt);
+        sample.stop(modelLatency);
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        // an intent may write to the database, so it runs off the caller's thread
+        return Mono.fromCallable(() -> fastAnswer(prompt))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(FastPathChatModel::toResponse)
+                .flux()
+                .switchIfEmpty(Flux.defer(() -> {
+                    var sample = Timer.start();
+                    return delegate.stream(prompt).doOnComplete(() -> sample.stop(modelLatency));
+                }));
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    private @Nullable String fastAnswer(Prompt prompt) {
+        // only a new user message can be a command; anything else, such as the
+        // results of the model's own tool calls, belongs to the model
+        var instructions = prompt.getInstructions();
+        if (instructions.isEmpty() || instructions.getLast().getMessageType() != MessageType.USER) {
+            return null;
+        }
+        var message = instructions.getLast().getText();
+        if (message == null) {
+            return null;
+        }
+
+        var start = System.nanoTime();
+        for (var intent : intents) {
+            Optional<String> answer = intent.handle(message);
+            if (answer.isPresent()) {
+                hits.increment();
+                recordSaved(System.nanoTime() - start);
+                return answer.get();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // the model wasn't asked, so what it would have taken is estimated from
+    // the messages it did answer
+    private void recordSaved(long fastPathNanos) {
+        if (modelLatency.count() > 0) {
+            var modelNanos = (long) modelLatency.mean(TimeUnit.NANOSECONDS);
+            saved.record(Duration.ofNanos(Math.max(0, modelNanos - fastPathNanos)));
+        }
+    }
+
+    private static ChatResponse toResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("assistant.fast-path.requests")
+                .description("User messages answered by the fast path (hit) or passed on to the model (miss)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.base.ai;
+
+import java.util.Optional;
+
+/**
+ * A request the assistant can answer without asking the model, such as a
+ * simple command. Spring beans implementing this are tried in order before
+ * every model call.
+ */
+public interface FastPathIntent {
+
+    /**
+     * Handles the user's message if this intent recognizes it with certainty.
+     *
+     * @param message
+     *            the latest user message
+     * @return the answer to show, or empty to let the model answer
+     */
+    Optional<String> handle(String message);
+}
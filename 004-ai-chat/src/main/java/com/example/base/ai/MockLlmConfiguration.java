@@ -0,0 +1,26 @@
+package com.example.base.ai;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Replaces the OpenAI model with a {@link ScriptedChatModel} when the
+ * {@code mock-llm} profile is active. The profile's properties turn the OpenAI
+ * auto-configuration off, so no API key is needed.
+ */
+@Configuration
+@Profile("mock-llm")
+class MockLlmConfiguration {
+
+    // the tool calling manager spring ai configures for the real models, so
+    // scripted tool calls go through the same execution and result conversion
+    @Bean
+    ChatModel scriptedChatModel(MockLlmProperties properties, ObjectProvider<ToolCallingManager> toolCallingManager) {
+        return new ScriptedChatModel(properties,
+                toolCallingManager.getIfAvailable(() -> ToolCallingManager.builder().build()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.base.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the {@link ScriptedChatModel}, read from {@code mock-llm.*}.
+ *
+ * @param firstTokenDelay
+ *            how long the model "thinks" before streaming the first token
+ * @param tokenDelay
+ *            the pause between streamed tokens
+ * @param script
+ *            the scripted exchanges, the first one whose prompt pattern matches
+ *            the user's message is replayed
+ */
+@ConfigurationProperties("mock-llm")
+public record MockLlmProperties(@DefaultValue("800ms") Duration firstTokenDelay,
+        @DefaultValue("30ms") Duration tokenDelay, @DefaultValue List<Exchange> script) {
+
+    /**
+     * @param prompt
+     *            regular expression matched against the whole user message
+     * @param toolCalls
+     *            the tools to call, one per model turn in order
+     * @param reply
+     *            the answer to stream; {@code {result}} is replaced with the
+     *            result of the last tool call
+     */
+    public record Exchange(String prompt, @DefaultValue List<ToolCall> toolCalls, String reply) {
+    }
+
+    /**
+     * @param name
+     *            the tool's name, i.e. the {@code @Tool} method name
+     * @param arguments
+     *            the tool arguments as JSON; {@code {ids}} is replaced with a
+     *            JSON array of the order ids in the previous tool's result
+     */
+    public record ToolCall(String name, @DefaultValue("{}") String arguments) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.base.ai;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Sends a tool's String result to the model as it is. The default converter
+ * would wrap it in a JSON string, escaping every quote and line break.
+ */
+public class PlainTextResultConverter implements ToolCallResultConverter {
+
+    private final ToolCallResultConverter fallback = new DefaultToolCallResultConverter();
+
+    @Override
+    public String convert(@Nullable Object result, @Nullable Type returnType) {
+        return result instanceof String text ? text : fallback.convert(result, returnType);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.base.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link AssistantResponseCache}, read from
+ * {@code assistant.response-cache.*}.
+ *
+ * @param enabled
+ *            whether answers are cached at all
+ * @param maxSize
+ *            maximum number of cached answers
+ */
+@ConfigurationProperties("assistant.response-cache")
+public record ResponseCacheProperties(@DefaultValue("false") boolean enabled, @DefaultValue("500") long maxSize) {
+}
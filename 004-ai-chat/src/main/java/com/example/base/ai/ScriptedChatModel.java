@@ -0,0 +1,176 @@
+package com.example.base.ai;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.DefaultToolExecutionEligibilityPredicate;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionEligibilityPredicate;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A stand-in for a real LLM that replays scripted exchanges, so the assistant
+ * can be run and load tested without calling OpenAI. Like a real model it
+ * answers a turn with tool call requests, which Spring AI's
+ * {@link ToolCallingManager} executes and sends back, and once all scripted
+ * tools have run it streams its answer token by token with the configured
+ * delays.
+ */
+public class ScriptedChatModel implements ChatModel {
+
+    // order ids in a tool result: the first column of the table format, or
+    // the "id" fields of the json format
+    private static final Pattern ORDER_ID = Pattern.compile("(?m)^(\\d+)\\||\"id\"\\s*:\\s*(\\d+)");
+
+    private final MockLlmProperties properties;
+    private final List<CompiledExchange> exchanges;
+    private final ToolCallingManager toolCallingManager;
+    private final ToolExecutionEligibilityPredicate toolExecutionEligibility =
+            new DefaultToolExecutionEligibilityPredicate();
+
+    public ScriptedChatModel(MockLlmProperties properties, ToolCallingManager toolCallingManager) {
+        this.properties = properties;
+        this.toolCallingManager = toolCallingManager;
+        this.exchanges = properties.script().stream()
+                .map(exchange -> new CompiledExchange(Pattern.compile(exchange.prompt(),
+                        Pattern.CASE_INSENSITIVE | Pattern.DOTALL), exchange))
+                .toList();
+    }
+
+    // the same loop as the real chat models: while the answer asks for tools,
+    // run them and ask again with their results added to the conversation
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        var response = respond(prompt);
+        if (toolExecutionEligibility.isToolExecutionRequired(prompt.getOptions(), response)) {
+            sleep(properties.firstTokenDelay());
+            var result = toolCallingManager.executeToolCalls(prompt, response);
+            return result.returnDirect()
+                    ? directResponse(response, result)
+                    : call(new Prompt(result.conversationHistory(), prompt.getOptions()));
+        }
+        var tokens = tokens(response.getResult().getOutput().getText());
+        sleep(properties.firstTokenDelay().plus(properties.tokenDelay().multipliedBy(tokens.size())));
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        var response = respond(prompt);
+        if (toolExecutionEligibility.isToolExecutionRequired(prompt.getOptions(), response)) {
+            // the tools may block on the database, so they run off the caller's thread
+            return Mono.fromCallable(() -> toolCallingManager.executeToolCalls(prompt, response))
+                    .delaySubscription(properties.firstTokenDelay())
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapMany(result -> result.returnDirect()
+                            ? Flux.just(directResponse(response, result))
+                            : stream(new Prompt(result.conversationHistory(), prompt.getOptions())));
+        }
+        return Flux.fromIterable(tokens(response.getResult().getOutput().getText()))
+                .delaySubscription(properties.firstTokenDelay())
+                .delayElements(properties.tokenDelay())
+                .map(ScriptedChatModel::toResponse);
+    }
+
+    // without default options the chat client has nowhere to put the tools
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return ToolCallingChatOptions.builder().build();
+    }
+
+    // the model's next turn: the next scripted tool call, or the reply once
+    // every tool call of the exchange has its result in the conversation
+    private ChatResponse respond(Prompt prompt) {
+        var userText = prompt.getUserMessage().getText();
+        var exchange = exchanges.stream()
+                .filter(candidate -> candidate.pattern().matcher(userText).matches())
+                .map(CompiledExchange::exchange)
+                .findFirst()
+                .orElse(null);
+        if (exchange == null) {
+            return toResponse("I'm a scripted stand-in for the real model and have no answer for \""
+                    + userText + "\".");
+        }
+
+        var toolResults = toolResultsOfThisTurn(prompt);
+        var lastResult = toolResults.isEmpty() ? "" : toolResults.getLast();
+        if (toolResults.size() < exchange.toolCalls().size()) {
+            var toolCall = exchange.toolCalls().get(toolResults.size());
+            var arguments = toolCall.arguments().replace("{ids}", orderIds(lastResult));
+            var message = AssistantMessage.builder()
+                    .content("")
+                    .toolCalls(List.of(new AssistantMessage.ToolCall(UUID.randomUUID().toString(), "function",
+                            toolCall.name(), arguments)))
+                    .build();
+            return new ChatResponse(List.of(new Generation(message)));
+        }
+        return toResponse(exchange.reply().replace("{result}", lastResult));
+    }
+
+    // the results of the tools called since the user's latest message
+    private static List<String> toolResultsOfThisTurn(Prompt prompt) {
+        var messages = prompt.getInstructions();
+        var turnStart = 0;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof UserMessage) {
+                turnStart = i + 1;
+                break;
+            }
+        }
+        return messages.subList(turnStart, messages.size()).stream()
+                .filter(ToolResponseMessage.class::isInstance)
+                .flatMap(message -> ((ToolResponseMessage) message).getResponses().stream())
+                .map(ToolResponseMessage.ToolResponse::responseData)
+                .toList();
+    }
+
+    private static String orderIds(String toolResult) {
+        return ORDER_ID.matcher(toolResult).results()
+                .map(match -> match.group(1) != null ? match.group(1) : match.group(2))
+                .distinct()
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static ChatResponse directResponse(ChatResponse response, ToolExecutionResult result) {
+        return ChatResponse.builder()
+                .from(response)
+                .generations(ToolExecutionResult.buildGenerations(result))
+                .build();
+    }
+
+    // roughly one token per word, keeping the spaces so the chunks join back up
+    private static List<String> tokens(String reply) {
+        return Arrays.asList(reply.split("(?<= )"));
+    }
+
+    private static ChatResponse toResponse(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record CompiledExchange(Pattern pattern, MockLlmProperties.Exchange exchange) {
+    }
+}
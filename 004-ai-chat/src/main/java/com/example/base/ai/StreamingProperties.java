@@ -0,0 +1,21 @@
+package com.example.base.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * How streamed answers are batched into UI updates, read from
+ * {@code assistant.streaming.*}.
+ *
+ * @param frameInterval
+ *            tokens arriving within this interval are sent to the browser
+ *            together; zero sends every token on its own
+ * @param maxTokensPerFrame
+ *            a frame is sent early once it holds this many tokens
+ */
+@ConfigurationProperties("assistant.streaming")
+public record StreamingProperties(@DefaultValue("50ms") Duration frameInterval,
+        @DefaultValue("64") int maxTokensPerFrame) {
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.example.base.ai;
+
+import org.jspecify.annotations.NullMarked;
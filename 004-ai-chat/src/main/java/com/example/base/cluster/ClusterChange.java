@@ -0,0 +1,17 @@
+package com.example.base.cluster;
+
+import java.util.List;
+
+/**
+ * Data that changed on one node, sent to the others.
+ *
+ * @param topic
+ *            what kind of data changed, e.g. {@code orders}
+ * @param ids
+ *            the ids of the changed rows
+ * @param structural
+ *            {@code true} if rows were added or removed, or too many changed
+ *            to list them
+ */
+public record ClusterChange(String topic, List<Long> ids, boolean structural) {
+}
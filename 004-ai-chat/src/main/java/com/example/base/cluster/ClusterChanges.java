@@ -0,0 +1,154 @@
+package com.example.base.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells the other nodes of a cluster about data changes, so they can drop
+ * their caches and refresh their views, and tells this node about theirs.
+ * Changes are collected for {@code cluster.flush-interval} and sent as one
+ * batch, with the ids of each topic deduplicated.
+ */
+@Component
+public class ClusterChanges {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterChanges.class);
+
+    private final ClusterTransport transport;
+    private final TaskScheduler scheduler;
+    private final Duration flushInterval;
+    private final int maxIds;
+    private final Map<String, List<Consumer<ClusterChange>>> subscribers = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private final Counter published;
+    private final Counter sentBatches;
+    private final Counter receivedBatches;
+
+    ClusterChanges(ClusterTransport transport, TaskScheduler scheduler,
+            @Value("${cluster.flush-interval:100ms}") Duration flushInterval,
+            @Value("${cluster.max-ids:200}") int maxIds,
+            MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.scheduler = scheduler;
+        this.flushInterval = flushInterval;
+        this.maxIds = maxIds;
+        this.published = Counter.builder("cluster.changes.published")
+                .description("Local changes handed to the cluster transport")
+                .register(meterRegistry);
+        this.sentBatches = batches(meterRegistry, "sent");
+        this.receivedBatches = batches(meterRegistry, "received");
+        transport.receive(this::deliver);
+    }
+
+    /**
+     * Registers a receiver for the changes of one topic made on other nodes.
+     */
+    public void subscribe(String topic, Consumer<ClusterChange> subscriber) {
+        subscribers.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    /**
+     * Queues a change made on this node for the other nodes.
+     */
+    public synchronized void publish(ClusterChange change) {
+        published.increment();
+        pending.computeIfAbsent(change.topic(), topic -> new Pending()).add(change);
+        scheduleFlush();
+    }
+
+    // guarded by this
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.schedule(this::flush, Instant.now().plus(flushInterval));
+        }
+    }
+
+    private void flush() {
+        var batch = new ArrayList<ClusterChange>();
+        synchronized (this) {
+            flushScheduled = false;
+            pending.forEach((topic, changes) -> batch.add(changes.toChange(topic)));
+            pending.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transport.send(batch);
+            sentBatches.increment();
+        } catch (RuntimeException e) {
+            // the other nodes would keep stale caches, so the changes go out
+            // again with the next flush, merged with those made meanwhile
+            log.warn("Sending {} cluster changes failed, retrying with the next flush", batch.size(), e);
+            requeue(batch);
+        }
+    }
+
+    private synchronized void requeue(List<ClusterChange> batch) {
+        batch.forEach(change -> pending.computeIfAbsent(change.topic(), topic -> new Pending()).add(change));
+        scheduleFlush();
+    }
+
+    private void deliver(List<ClusterChange> batch) {
+        receivedBatches.increment();
+        for (var change : batch) {
+            subscribers.getOrDefault(change.topic(), List.of()).forEach(subscriber -> subscriber.accept(change));
+        }
+    }
+
+    private static Counter batches(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("cluster.changes.batches")
+                .description("Change batches exchanged with other nodes")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    // the changes of one topic since the last flush
+    private final class Pending {
+
+        private final Set<Long> ids = new LinkedHashSet<>();
+        private boolean structural;
+        private boolean tooManyIds;
+
+        void add(ClusterChange change) {
+            structural |= change.structural();
+            if (tooManyIds) {
+                return;
+            }
+            // past a certain size, listing ids is no cheaper than reloading everything
+            if (ids.size() + change.ids().size() > maxIds) {
+                tooManyIds = true;
+                structural = true;
+                ids.clear();
+            } else {
+                ids.addAll(change.ids());
+            }
+        }
+
+        ClusterChange toChange(String topic) {
+            return new ClusterChange(topic, List.copyOf(ids), structural);
+        }
+    }
+}
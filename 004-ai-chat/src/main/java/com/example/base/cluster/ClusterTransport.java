@@ -0,0 +1,23 @@
+package com.example.base.cluster;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries batches of {@link ClusterChange}s between the nodes of a cluster.
+ * Exactly one implementation is active, chosen with {@code cluster.transport}.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Sends the changes to every other node. Must not block for long, it runs
+     * on the scheduler's thread.
+     */
+    void send(List<ClusterChange> changes);
+
+    /**
+     * Sets the receiver of the changes sent by other nodes; never called with
+     * this node's own changes.
+     */
+    void receive(Consumer<List<ClusterChange>> receiver);
+}
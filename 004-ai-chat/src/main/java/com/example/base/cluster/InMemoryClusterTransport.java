@@ -0,0 +1,43 @@
+package com.example.base.cluster;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The default transport: connects the nodes running in the same JVM, which
+ * for a normal single-node run means there is nobody to tell. Two application
+ * contexts started side by side, as in a test, see each other's changes.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.transport", havingValue = "in-memory", matchIfMissing = true)
+class InMemoryClusterTransport implements ClusterTransport, DisposableBean {
+
+    private static final List<InMemoryClusterTransport> NODES = new CopyOnWriteArrayList<>();
+
+    private volatile Consumer<List<ClusterChange>> receiver = changes -> {
+    };
+
+    InMemoryClusterTransport() {
+        NODES.add(this);
+    }
+
+    @Override
+    public void send(List<ClusterChange> changes) {
+        NODES.stream().filter(node -> node != this).forEach(node -> node.receiver.accept(changes));
+    }
+
+    @Override
+    public void receive(Consumer<List<ClusterChange>> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void destroy() {
+        NODES.remove(this);
+    }
+}
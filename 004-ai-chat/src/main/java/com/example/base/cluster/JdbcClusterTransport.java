@@ -0,0 +1,133 @@
+package com.example.base.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Sends changes through the {@code cluster_change} table of the shared
+ * database: every batch is inserted as rows, and every node polls for the rows
+ * of the others. Needs nothing but the database all nodes already use.
+ * <p>
+ * Rows from concurrent inserts may become visible out of id order, so each
+ * poll looks back a few seconds and skips the rows it has already seen.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.transport", havingValue = "jdbc")
+class JdbcClusterTransport implements ClusterTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcClusterTransport.class);
+
+    private static final Duration LOOK_BACK = Duration.ofSeconds(10);
+    private static final int MAX_SEEN = 10_000;
+
+    private final JdbcClient jdbcClient;
+    private final TaskScheduler scheduler;
+    private final Duration pollInterval;
+    private final Duration retention;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // ids of the rows already delivered, oldest first; only the poll thread uses it
+    private final Map<Long, Boolean> seen = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_SEEN;
+        }
+    };
+    private Instant lastCleanup = Instant.now();
+
+    JdbcClusterTransport(JdbcClient jdbcClient, TaskScheduler scheduler,
+            @Value("${cluster.jdbc.poll-interval:500ms}") Duration pollInterval,
+            @Value("${cluster.jdbc.retention:PT5M}") Duration retention) {
+        this.jdbcClient = jdbcClient;
+        this.scheduler = scheduler;
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    @Override
+    public void send(List<ClusterChange> changes) {
+        var now = Timestamp.from(Instant.now());
+        for (var change : changes) {
+            jdbcClient.sql("""
+                            insert into cluster_change (node_id, topic, structural, ids, created_at)
+                            values (:nodeId, :topic, :structural, :ids, :createdAt)""")
+                    .param("nodeId", nodeId)
+                    .param("topic", change.topic())
+                    .param("structural", change.structural())
+                    .param("ids", change.ids().stream().map(String::valueOf).collect(Collectors.joining(",")))
+                    .param("createdAt", now)
+                    .update();
+        }
+    }
+
+    @Override
+    public void receive(Consumer<List<ClusterChange>> receiver) {
+        // what happened before this node started is already in the database it reads
+        jdbcClient.sql("select change_id from cluster_change where created_at > :since")
+                .param("since", Timestamp.from(Instant.now().minus(LOOK_BACK)))
+                .query(Long.class)
+                .list()
+                .forEach(id -> seen.put(id, true));
+        scheduler.scheduleWithFixedDelay(() -> poll(receiver), pollInterval);
+    }
+
+    private void poll(Consumer<List<ClusterChange>> receiver) {
+        try {
+            var rows = jdbcClient.sql("""
+                            select change_id, node_id, topic, structural, ids from cluster_change
+                            where created_at > :since order by change_id""")
+                    .param("since", Timestamp.from(Instant.now().minus(LOOK_BACK)))
+                    .query((rs, rowNum) -> new Row(rs.getLong("change_id"), rs.getString("node_id"),
+                            new ClusterChange(rs.getString("topic"), parseIds(rs.getString("ids")),
+                                    rs.getBoolean("structural"))))
+                    .list();
+            var batch = new ArrayList<ClusterChange>();
+            for (var row : rows) {
+                if (seen.put(row.id(), true) == null && !nodeId.equals(row.nodeId())) {
+                    batch.add(row.change());
+                }
+            }
+            if (!batch.isEmpty()) {
+                receiver.accept(batch);
+            }
+            cleanUp();
+        } catch (RuntimeException e) {
+            // a failed poll must not stop the schedule, the next one looks back far enough
+            log.warn("Polling cluster changes failed", e);
+        }
+    }
+
+    // every node deletes the rows that are old enough that nobody needs them anymore
+    private void cleanUp() {
+        if (Instant.now().isAfter(lastCleanup.plus(retention))) {
+            lastCleanup = Instant.now();
+            jdbcClient.sql("delete from cluster_change where created_at < :before")
+                    .param("before", Timestamp.from(lastCleanup.minus(retention)))
+                    .update();
+        }
+    }
+
+    private static List<Long> parseIds(String ids) {
+        return ids.isEmpty() ? List.of() : Arrays.stream(ids.split(",")).map(Long::valueOf).toList();
+    }
+
+    private record Row(long id, String nodeId, ClusterChange change) {
+    }
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package com.example.base.cluster;
+
+import org.jspecify.annotations.NullMarked;
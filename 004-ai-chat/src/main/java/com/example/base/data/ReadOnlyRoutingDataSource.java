@@ -0,0 +1,85 @@
+package com.example.base.data;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends the connections of read-only transactions to the replica and all other
+ * connections to the primary. A replica lags behind the primary, so for
+ * {@code lagTolerance} after any write, reads go to the primary too; that way
+ * the grids refreshing right after an edit see it.
+ * <p>
+ * The read-only flag is only known once the transaction has started, so this
+ * must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * which asks for the connection at the first statement.
+ */
+class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final long lagToleranceNanos;
+    private volatile long lastWriteNanos;
+
+    // how many connections each database serves, and why reads went to the primary
+    private final Counter replicaReads;
+    private final Counter primaryWrites;
+    private final Counter primaryRecentWriteReads;
+
+    ReadOnlyRoutingDataSource(DataSource primary, DataSource replica, Duration lagTolerance,
+            MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.lagToleranceNanos = lagTolerance.toNanos();
+        this.lastWriteNanos = System.nanoTime() - lagToleranceNanos;
+        this.replicaReads = routed(meterRegistry, "replica", "read-only");
+        this.primaryWrites = routed(meterRegistry, "primary", "read-write");
+        this.primaryRecentWriteReads = routed(meterRegistry, "primary", "recent-write");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryWrites.increment();
+            recordWrite();
+            return Target.PRIMARY;
+        }
+        if (System.nanoTime() - lastWriteNanos < lagToleranceNanos) {
+            primaryRecentWriteReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    // the lag is counted from the commit, which may come long after the
+    // connection was taken; without a transaction the write is already done
+    private void recordWrite() {
+        lastWriteNanos = System.nanoTime();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWriteNanos = System.nanoTime();
+                }
+            });
+        }
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.connections.routed")
+                .description("Connections handed out, by the database that served them and why")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
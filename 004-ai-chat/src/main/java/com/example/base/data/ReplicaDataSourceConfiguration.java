@@ -0,0 +1,50 @@
+package com.example.base.data;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the single datasource with a primary and a read replica when the
+ * {@code replica} profile is active: {@code @Transactional(readOnly = true)}
+ * methods, like the grid's paging and the AI read tools, then read from the
+ * replica. Each pool is configured under {@code datasource.primary.*} and
+ * {@code datasource.replica.*} with Hikari's property names.
+ */
+@Configuration
+@Profile("replica")
+class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("datasource.primary")
+    HikariDataSource primaryDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica")
+    HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    // jpa, flyway and the jdbc clients all use this one
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${datasource.replica-lag-tolerance:1s}") Duration lagTolerance,
+            MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadOnlyRoutingDataSource(primary, replica, lagTolerance, meterRegistry));
+    }
+}
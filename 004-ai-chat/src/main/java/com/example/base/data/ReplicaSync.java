@@ -0,0 +1,87 @@
+package com.example.base.data;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Local stand-in for database replication: copies every table of the primary
+ * into the replica every {@code datasource.replica-sync-interval}, so the
+ * replica is a database of its own that lags behind the primary, like a real
+ * one. Copies whole tables, so it suits demo data sizes, not millions of
+ * orders. Not needed, and not active without the interval, for a real replica.
+ */
+@Component
+@Profile("replica")
+@ConditionalOnProperty("datasource.replica-sync-interval")
+class ReplicaSync {
+
+    private final JdbcTemplate primary;
+    private final TransactionTemplate primaryTransaction;
+    private final JdbcTemplate replica;
+    private final TransactionTemplate replicaTransaction;
+    private final List<String> tables;
+
+    ReplicaSync(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("replicaDataSource") HikariDataSource replicaDataSource) {
+        // the replica pool is read-only, so the copy writes through connections of its own
+        var replicaWriter = new DriverManagerDataSource(replicaDataSource.getJdbcUrl(),
+                replicaDataSource.getUsername(), Objects.requireNonNullElse(replicaDataSource.getPassword(), ""));
+        // the same migrations as the primary, so the tables and their columns match
+        Flyway.configure().dataSource(replicaWriter).load().migrate();
+
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.primaryTransaction = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        // all tables are read from one snapshot, like a replica replaying whole commits
+        primaryTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        primaryTransaction.setReadOnly(true);
+        this.replica = new JdbcTemplate(replicaWriter);
+        this.replicaTransaction = new TransactionTemplate(new DataSourceTransactionManager(replicaWriter));
+        this.tables = replica.queryForList("""
+                select table_name from information_schema.tables
+                where table_schema = 'PUBLIC' and table_type = 'BASE TABLE'
+                  and table_name <> 'flyway_schema_history'""", String.class);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica-sync-interval}")
+    void sync() {
+        var rows = Objects.requireNonNull(primaryTransaction.execute(status -> read()));
+        // readers of the replica see the old rows until the whole copy commits
+        replicaTransaction.executeWithoutResult(status -> rows.forEach((table, tableRows) -> {
+            replica.update("delete from " + table);
+            if (!tableRows.isEmpty()) {
+                var columns = String.join(", ", Collections.nCopies(tableRows.getFirst().length, "?"));
+                replica.batchUpdate("insert into " + table + " values (" + columns + ")", tableRows);
+            }
+        }));
+    }
+
+    private Map<String, List<Object[]>> read() {
+        var rows = new LinkedHashMap<String, List<Object[]>>();
+        for (var table : tables) {
+            rows.put(table, primary.query("select * from " + table, (rs, rowNum) -> {
+                var row = new Object[rs.getMetaData().getColumnCount()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                return row;
+            }));
+        }
+        return rows;
+    }
+}
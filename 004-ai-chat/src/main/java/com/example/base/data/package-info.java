@@ -0,0 +1,4 @@
+@NullMarked
+package com.example.base.data;
+
+import org.jspecify.annotations.NullMarked;
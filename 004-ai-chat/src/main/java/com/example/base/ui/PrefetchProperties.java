@@ -0,0 +1,21 @@
+package com.example.base.ui;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * How far {@link PrefetchingDataProvider} loads ahead of a scrolling grid,
+ * read from {@code grid.prefetch.*}.
+ *
+ * @param enabled
+ *            {@code false} makes every fetch go to the database on demand
+ * @param maxPagesAhead
+ *            pages loaded ahead while the user scrolls fast; one otherwise
+ * @param cachedPages
+ *            prefetched pages kept per grid, the oldest unused one is dropped
+ */
+@ConfigurationProperties("grid.prefetch")
+public record PrefetchProperties(@DefaultValue("true") boolean enabled,
+        @DefaultValue("2") int maxPagesAhead,
+        @DefaultValue("6") int cachedPages) {
+}
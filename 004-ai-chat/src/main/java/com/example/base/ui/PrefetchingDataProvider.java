@@ -0,0 +1,226 @@
+package com.example.base.ui;
+
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.server.VaadinRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * A lazy data provider that loads the page a grid will ask for next before it
+ * asks. From the offsets of the grid's fetches it tells the scroll direction,
+ * loads the next pages in that direction on a background thread, and serves
+ * the grid's next fetch from them instead of waiting for the database.
+ * <p>
+ * One instance belongs to one grid, so the prefetched pages live as long as
+ * the user's view. {@link #refreshAll()} and {@link #refreshItem(Object)} drop
+ * them, as they may hold outdated rows. The fetch callback also runs on
+ * background threads: it must not touch UI components, and must read any
+ * filter state in a thread-safe way.
+ * <p>
+ * {@code grid.prefetch.requests{result=hit|miss}} shows how many fetches were
+ * served from prefetched pages, {@code grid.prefetch.pages{outcome=used|wasted}}
+ * how many prefetched pages were dropped without being used.
+ */
+public class PrefetchingDataProvider<T, F> extends CallbackDataProvider<T, F> {
+
+    // scrolling more than a page per this long means the user scrolls fast, so
+    // more than one page is loaded ahead
+    private static final Duration FAST_SCROLL = Duration.ofSeconds(1);
+
+    private final FetchCallback<T, F> fetchCallback;
+    private final Executor executor;
+    private final PrefetchProperties properties;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter usedPages;
+    private final Counter wastedPages;
+
+    // prefetched pages by the fetch they answer, least recently added first;
+    // guarded by this, the ui thread and the prefetch threads both use it
+    private final Map<Key, CompletableFuture<List<T>>> pages = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<List<T>>> eldest) {
+            if (size() > properties.cachedPages()) {
+                wastedPages.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+    private @Nullable Key lastFetch;
+    // the grid asks for all pages it needs in one round trip, milliseconds
+    // apart, so the scroll speed is measured from one round trip to the next;
+    // the request is only compared, not kept alive
+    private @Nullable WeakReference<VaadinRequest> roundTrip;
+    private long roundTripNanos;
+    private int roundTripOffset;
+    private boolean fast;
+
+    /**
+     * Creates a provider for a grid that knows its row count.
+     *
+     * @param name
+     *            tags the metrics, e.g. the grid's name
+     */
+    public PrefetchingDataProvider(FetchCallback<T, F> fetchCallback, CountCallback<T, F> countCallback,
+            Executor executor, PrefetchProperties properties, String name, MeterRegistry meterRegistry) {
+        super(fetchCallback, countCallback);
+        this.fetchCallback = fetchCallback;
+        this.executor = executor;
+        this.properties = properties;
+        // shared by all grids of the same name: the registry hands every instance the same meters
+        hits = requests(meterRegistry, name, "hit");
+        misses = requests(meterRegistry, name, "miss");
+        usedPages = pages(meterRegistry, name, "used");
+        wastedPages = pages(meterRegistry, name, "wasted");
+    }
+
+    /**
+     * Creates a provider for a grid that doesn't count its rows, see
+     * {@code GridLazyDataView.setItemCountEstimate}.
+     */
+    public PrefetchingDataProvider(FetchCallback<T, F> fetchCallback, Executor executor,
+            PrefetchProperties properties, String name, MeterRegistry meterRegistry) {
+        this(fetchCallback, query -> {
+            throw new IllegalStateException("The row count is unknown, the grid must not ask for it");
+        }, executor, properties, name, meterRegistry);
+    }
+
+    @Override
+    public Stream<T> fetchFromBackEnd(Query<T, F> query) {
+        var key = Key.of(query);
+        CompletableFuture<List<T>> page;
+        synchronized (this) {
+            // served once, the grid keeps the rows itself from now on
+            page = pages.remove(key);
+            prefetchAfter(query, key);
+        }
+        if (page != null) {
+            try {
+                var rows = page.join();
+                hits.increment();
+                usedPages.increment();
+                return rows.stream();
+            } catch (CompletionException e) {
+                // the prefetch failed, the fetch below reports the error if it fails again
+                wastedPages.increment();
+            }
+        }
+        misses.increment();
+        return fetchCallback.fetch(query);
+    }
+
+    @Override
+    public void refreshAll() {
+        discardPages();
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        discardPages();
+        super.refreshItem(item);
+    }
+
+    @Override
+    public void refreshItem(T item, boolean refreshChildren) {
+        discardPages();
+        super.refreshItem(item, refreshChildren);
+    }
+
+    private synchronized void discardPages() {
+        // a page still loading may have read the rows before the change
+        wastedPages.increment(pages.size());
+        pages.clear();
+        lastFetch = null;
+        fast = false;
+    }
+
+    // holds the lock; starts loading the pages after the given fetch in the
+    // direction the grid has been moving
+    private void prefetchAfter(Query<T, F> query, Key key) {
+        var previous = lastFetch;
+        lastFetch = key;
+        measureSpeed(previous, key);
+        // the first fetch, or a new sort or filter, doesn't tell a direction
+        if (!properties.enabled() || previous == null || !previous.sameRows(key)
+                || previous.offset() == key.offset()) {
+            return;
+        }
+
+        var direction = Integer.signum(key.offset() - previous.offset());
+        var pagesAhead = fast ? properties.maxPagesAhead() : 1;
+        for (int i = 1; i <= pagesAhead; i++) {
+            var offset = query.getOffset() + direction * i * query.getLimit();
+            if (offset < 0) {
+                break;
+            }
+            var next = new Query<>(offset, query.getLimit(), query.getSortOrders(), query.getInMemorySorting(),
+                    query.getFilter().orElse(null));
+            pages.computeIfAbsent(Key.of(next),
+                    nextKey -> CompletableFuture.supplyAsync(() -> fetchCallback.fetch(next).toList(), executor));
+        }
+    }
+
+    // holds the lock; on the first fetch of a round trip, compares how far the
+    // grid moved since the previous round trip with how long that took
+    private void measureSpeed(@Nullable Key previous, Key key) {
+        var request = VaadinRequest.getCurrent();
+        if (request != null && roundTrip != null && roundTrip.get() == request) {
+            return;
+        }
+        var now = System.nanoTime();
+        var rowsMoved = (long) Math.abs(key.offset() - roundTripOffset);
+        fast = previous != null && previous.sameRows(key)
+                && rowsMoved * FAST_SCROLL.toNanos() > (long) key.limit() * (now - roundTripNanos);
+        roundTrip = request != null ? new WeakReference<>(request) : null;
+        roundTripNanos = now;
+        roundTripOffset = key.offset();
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("grid.prefetch.requests")
+                .description("Grid fetches, served from a prefetched page or not")
+                .tag("grid", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter pages(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("grid.prefetch.pages")
+                .description("Prefetched grid pages, served to the grid or dropped unused")
+                .tag("grid", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // a fetch's rows; sort orders don't implement equals, so they are kept as text
+    private record Key(int offset, int limit, List<String> sortOrders, @Nullable Object filter) {
+
+        static Key of(Query<?, ?> query) {
+            var sortOrders = query.getSortOrders().stream()
+                    .map(order -> order.getSorted() + " " + order.getDirection())
+                    .toList();
+            return new Key(query.getOffset(), query.getLimit(), sortOrders, query.getFilter().orElse(null));
+        }
+
+        // same sort and filter, so offsets in different fetches are comparable
+        boolean sameRows(Key other) {
+            return sortOrders.equals(other.sortOrders) && Objects.equals(filter, other.filter);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.diagnostics;
+
+/**
+ * What all components of one type in a UI hold on the server. The state nodes
+ * are those of the components' own elements, without the nodes of child
+ * components, so the numbers of all types add up to the UI's total.
+ *
+ * @param component
+ *            the simple class name of the components, or ChatMemory for the
+ *            conversations of the assistant's chat sessions
+ * @param instances
+ *            number of components of this type
+ * @param stateNodes
+ *            state nodes of their own elements
+ * @param cachedItems
+ *            grid rows or messages they keep
+ * @param estimatedBytes
+ *            rough heap size of the nodes and items
+ */
+public record ComponentFootprint(String component, int instances, int stateNodes, long cachedItems,
+        long estimatedBytes) {
+}
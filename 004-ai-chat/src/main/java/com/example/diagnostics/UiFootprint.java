@@ -0,0 +1,32 @@
+package com.example.diagnostics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What one open browser tab (UI) holds on the server at the time it was
+ * measured.
+ *
+ * @param uiId
+ *            the UI's id, unique within its session
+ * @param session
+ *            a short label telling sessions apart, not the session id
+ * @param route
+ *            the path of the view the UI shows
+ * @param measuredAt
+ *            when the UI was measured
+ * @param stateNodes
+ *            state nodes in the UI's tree; each element, and each of its
+ *            property and child lists, is kept as nodes on the server
+ * @param cachedItems
+ *            items the UI's components keep besides their nodes: grid rows in
+ *            the data communicator, chat messages, and the messages of the
+ *            assistant's conversations
+ * @param estimatedBytes
+ *            rough heap size of the nodes and items
+ * @param components
+ *            the same numbers per component type, heaviest first
+ */
+public record UiFootprint(int uiId, String session, String route, Instant measuredAt, int stateNodes,
+        long cachedItems, long estimatedBytes, List<ComponentFootprint> components) {
+}
@@ -0,0 +1,270 @@
+package com.example.diagnostics;
+
+import com.example.base.ai.AssistantChatModels;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.messages.MessageList;
+import com.vaadin.flow.data.provider.KeyMapper;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Estimates how much server memory each open UI holds, so sessions per node
+ * can be sized and heavy components found. Every UI is measured periodically
+ * inside {@code ui.access()}: its state nodes are counted per component, and
+ * the rows grids keep, the messages of message lists and the conversations of
+ * the assistant's chat sessions are added. Bytes are estimated from
+ * configurable per-node and per-item sizes, calibrate them against a heap dump
+ * of a real session.
+ * <p>
+ * The results are published as {@code vaadin.ui.*} metrics and shown in the
+ * DiagnosticsView.
+ */
+@org.springframework.stereotype.Component
+public class UiFootprintMeter implements VaadinServiceInitListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UiFootprintMeter.class);
+
+    // the rows a grid holds are the items its data communicator has given a
+    // key: the range the browser asked for, and earlier ranges until the
+    // browser confirms it dropped them. vaadin has no public accessor for
+    // them, so the key mapper's map is read reflectively
+    private static final @Nullable Field KEY_MAPPER_ITEMS = keyMapperItems();
+
+    // the conversations the assistant's chat sessions keep are not components
+    private static final String CHAT_MEMORY = "ChatMemory";
+
+    private final Set<UI> uis = ConcurrentHashMap.newKeySet();
+    private final Map<UI, UiFootprint> footprints = new ConcurrentHashMap<>();
+
+    private final int bytesPerStateNode;
+    private final int bytesPerGridRow;
+    private final int bytesPerMessage;
+
+    private final DistributionSummary uiBytes;
+    private final MultiGauge componentNodes;
+    private final MultiGauge componentBytes;
+
+    UiFootprintMeter(@Value("${diagnostics.footprint.bytes-per-state-node:500}") int bytesPerStateNode,
+            @Value("${diagnostics.footprint.bytes-per-grid-row:300}") int bytesPerGridRow,
+            @Value("${diagnostics.footprint.bytes-per-message:1000}") int bytesPerMessage,
+            MeterRegistry meterRegistry) {
+        this.bytesPerStateNode = bytesPerStateNode;
+        this.bytesPerGridRow = bytesPerGridRow;
+        this.bytesPerMessage = bytesPerMessage;
+
+        Gauge.builder("vaadin.ui.count", footprints, Map::size)
+                .description("Open UIs that have been measured")
+                .register(meterRegistry);
+        Gauge.builder("vaadin.ui.state.nodes", footprints, all -> sum(all, UiFootprint::stateNodes))
+                .description("State nodes held by all open UIs")
+                .register(meterRegistry);
+        Gauge.builder("vaadin.ui.estimated.bytes", footprints, all -> sum(all, UiFootprint::estimatedBytes))
+                .description("Estimated memory held by all open UIs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        uiBytes = DistributionSummary.builder("vaadin.ui.footprint")
+                .description("Estimated memory held by one UI, recorded every time it is measured")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        componentNodes = MultiGauge.builder("vaadin.ui.component.state.nodes")
+                .description("State nodes held by all components of a type in all open UIs")
+                .register(meterRegistry);
+        componentBytes = MultiGauge.builder("vaadin.ui.component.estimated.bytes")
+                .description("Estimated memory held by all components of a type in all open UIs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // spring beans implementing VaadinServiceInitListener are picked up by
+    // vaadin, which makes this see every UI from the moment it is created
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        event.getSource().addUIInitListener(uiInit -> {
+            var ui = uiInit.getUI();
+            uis.add(ui);
+            ui.addDetachListener(detach -> forget(ui));
+        });
+    }
+
+    /**
+     * Returns the latest measurement of every open UI, heaviest first.
+     */
+    public List<UiFootprint> footprints() {
+        return footprints.values().stream()
+                .sorted(Comparator.comparingLong(UiFootprint::estimatedBytes).reversed())
+                .toList();
+    }
+
+    /**
+     * Measures all open UIs again. The measurements run when each UI's session
+     * is free, so {@link #footprints()} may not include them right away.
+     */
+    @Scheduled(initialDelayString = "${diagnostics.footprint.interval:PT1M}",
+            fixedDelayString = "${diagnostics.footprint.interval:PT1M}")
+    public void measureAll() {
+        // the per-component gauges are fed from the previous round, which is
+        // complete by now
+        publishComponentTotals();
+        for (var ui : uis) {
+            try {
+                ui.access(() -> {
+                    var footprint = measure(ui);
+                    // the ui may have closed while this was waiting for the session
+                    if (uis.contains(ui)) {
+                        footprints.put(ui, footprint);
+                        uiBytes.record(footprint.estimatedBytes());
+                    }
+                });
+            } catch (UIDetachedException e) {
+                forget(ui);
+            }
+        }
+    }
+
+    private void forget(UI ui) {
+        uis.remove(ui);
+        footprints.remove(ui);
+    }
+
+    private UiFootprint measure(UI ui) {
+        var totals = new HashMap<String, ComponentTotals>();
+        var stateNodes = measure(ui, totals);
+        for (var memory : AssistantChatModels.memorySizes(ui)) {
+            // the texts are strings, at most two bytes per char
+            totals.computeIfAbsent(CHAT_MEMORY, type -> new ComponentTotals())
+                    .add(0, memory.messages(), memory.chars() * Character.BYTES);
+        }
+        var components = totals.entrySet().stream()
+                .map(entry -> entry.getValue().toFootprint(entry.getKey()))
+                .sorted(Comparator.comparingLong(ComponentFootprint::estimatedBytes).reversed())
+                .toList();
+        return new UiFootprint(ui.getUIId(), Integer.toHexString(System.identityHashCode(ui.getSession())),
+                "/" + ui.getInternals().getActiveViewLocation().getPath(), Instant.now(), stateNodes,
+                components.stream().mapToLong(ComponentFootprint::cachedItems).sum(),
+                components.stream().mapToLong(ComponentFootprint::estimatedBytes).sum(),
+                components);
+    }
+
+    // returns the nodes of the component's whole subtree; the component
+    // itself is charged only for the nodes its children don't account for
+    private int measure(Component component, Map<String, ComponentTotals> totals) {
+        var subtreeNodes = countNodes(component.getElement());
+        var childNodes = component.getChildren().mapToInt(child -> measure(child, totals)).sum();
+        long itemBytes = 0;
+        long items = 0;
+        if (component instanceof Grid<?> grid) {
+            items = gridRows(grid);
+            itemBytes = items * bytesPerGridRow;
+        } else if (component instanceof MessageList messageList) {
+            items = messageList.getItems().size();
+            itemBytes = items * bytesPerMessage;
+        }
+        // a composite shares its element with its content, which already took the nodes
+        var ownNodes = Math.max(0, subtreeNodes - childNodes);
+        totals.computeIfAbsent(typeName(component), type -> new ComponentTotals())
+                .add(ownNodes, items, (long) ownNodes * bytesPerStateNode + itemBytes);
+        return subtreeNodes;
+    }
+
+    private static int countNodes(Element element) {
+        var nodes = new AtomicInteger();
+        element.getNode().visitNodeTree(node -> nodes.incrementAndGet());
+        return nodes.get();
+    }
+
+    private static long gridRows(Grid<?> grid) {
+        if (KEY_MAPPER_ITEMS != null && grid.getDataCommunicator().getKeyMapper() instanceof KeyMapper<?> keyMapper) {
+            try {
+                return ((Map<?, ?>) KEY_MAPPER_ITEMS.get(keyMapper)).size();
+            } catch (IllegalAccessException e) {
+                // estimated below
+            }
+        }
+        // the browser asks for roughly two pages around the viewport
+        return Math.min(grid.getDataCommunicator().getItemCount(), 2L * grid.getPageSize());
+    }
+
+    private static @Nullable Field keyMapperItems() {
+        try {
+            var field = KeyMapper.class.getDeclaredField("keyObjectMap");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            log.warn("Cannot read the rows grids keep, estimating them from the page size instead", e);
+            return null;
+        }
+    }
+
+    // anonymous classes, like a view's inline components, count as their superclass
+    private static String typeName(Component component) {
+        var type = component.getClass();
+        while (type.isAnonymousClass()) {
+            type = type.getSuperclass();
+        }
+        return type.getSimpleName();
+    }
+
+    private void publishComponentTotals() {
+        var latest = footprints.values().stream().flatMap(footprint -> footprint.components().stream()).toList();
+        componentNodes.register(rows(latest, ComponentFootprint::stateNodes), true);
+        componentBytes.register(rows(latest, ComponentFootprint::estimatedBytes), true);
+    }
+
+    private static List<MultiGauge.Row<?>> rows(List<ComponentFootprint> components,
+            ToLongFunction<ComponentFootprint> value) {
+        return components.stream()
+                .collect(Collectors.groupingBy(ComponentFootprint::component, Collectors.summingLong(value)))
+                .entrySet().stream()
+                .<MultiGauge.Row<?>>map(entry -> MultiGauge.Row.of(Tags.of("component", entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
+    private static long sum(Map<UI, UiFootprint> footprints, ToLongFunction<UiFootprint> value) {
+        return footprints.values().stream().mapToLong(value).sum();
+    }
+
+    private static final class ComponentTotals {
+
+        private int instances;
+        private int stateNodes;
+        private long cachedItems;
+        private long estimatedBytes;
+
+        void add(int nodes, long items, long bytes) {
+            instances++;
+            stateNodes += nodes;
+            cachedItems += items;
+            estimatedBytes += bytes;
+        }
+
+        ComponentFootprint toFootprint(String component) {
+            return new ComponentFootprint(component, instances, stateNodes, cachedItems, estimatedBytes);
+        }
+    }
+}
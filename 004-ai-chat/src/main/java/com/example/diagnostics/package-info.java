@@ -0,0 +1,4 @@
+@NullMarked
+package com.example.diagnostics;
+
+import org.jspecify.annotations.NullMarked;
@@ -0,0 +1,25 @@
+package com.example.diagnostics.ui;
+
+import com.vaadin.flow.router.RouteConfiguration;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.startup.ApplicationRouteRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens the DiagnosticsView at /diagnostics. The view lists every user's open
+ * tabs and lets anyone who can open it trigger measurements, so the route only
+ * exists when {@code diagnostics.view.enabled} is true: on a developer's
+ * machine, or on a node that only administrators can reach.
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.view.enabled", havingValue = "true")
+class DiagnosticsRoute implements VaadinServiceInitListener {
+
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        RouteConfiguration.forRegistry(ApplicationRouteRegistry.getInstance(event.getSource().getContext()))
+                .setRoute("diagnostics", DiagnosticsView.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.diagnostics.ui;
+
+import com.example.base.ui.ViewTitle;
+import com.example.diagnostics.ComponentFootprint;
+import com.example.diagnostics.UiFootprint;
+import com.example.diagnostics.UiFootprintMeter;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.ColumnTextAlign;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.router.PageTitle;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// an admin view, so it has no @Menu entry, and no route unless
+// DiagnosticsRoute registers it
+@PageTitle("Diagnostics")
+class DiagnosticsView extends VerticalLayout {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    DiagnosticsView(UiFootprintMeter meter) {
+        // one row per open browser tab, heaviest first; selecting a row lists
+        // what its components hold below
+        var uis = new Grid<UiFootprint>();
+        uis.addColumn(UiFootprint::session).setHeader("Session").setAutoWidth(true).setFlexGrow(0);
+        uis.addColumn(UiFootprint::uiId).setHeader("UI").setAutoWidth(true).setFlexGrow(0);
+        uis.addColumn(UiFootprint::route).setHeader("Route");
+        uis.addColumn(UiFootprint::stateNodes).setHeader("State nodes")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        uis.addColumn(UiFootprint::cachedItems).setHeader("Cached items")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        uis.addColumn(footprint -> kilobytes(footprint.estimatedBytes())).setHeader("Estimated size")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        uis.addColumn(footprint -> TIME_FORMAT.format(footprint.measuredAt())).setHeader("Measured")
+                .setAutoWidth(true).setFlexGrow(0);
+
+        var components = new Grid<ComponentFootprint>();
+        components.addColumn(ComponentFootprint::component).setHeader("Component");
+        components.addColumn(ComponentFootprint::instances).setHeader("Instances")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        components.addColumn(ComponentFootprint::stateNodes).setHeader("State nodes")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        components.addColumn(ComponentFootprint::cachedItems).setHeader("Cached items")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+        components.addColumn(footprint -> kilobytes(footprint.estimatedBytes())).setHeader("Estimated size")
+                .setTextAlign(ColumnTextAlign.END).setAutoWidth(true).setFlexGrow(0);
+
+        uis.asSingleSelect().addValueChangeListener(event -> components.setItems(
+                event.getValue() != null ? event.getValue().components() : List.of()));
+
+        var summary = new Span();
+        Runnable showFootprints = () -> {
+            var footprints = meter.footprints();
+            uis.setItems(footprints);
+            summary.setText("%d UIs, %s in total".formatted(footprints.size(),
+                    kilobytes(footprints.stream().mapToLong(UiFootprint::estimatedBytes).sum())));
+        };
+        showFootprints.run();
+
+        // the measurements finish once each session is free, this one's only
+        // after this request, so the button shows the previous round
+        var refresh = new Button("Measure again", event -> {
+            meter.measureAll();
+            showFootprints.run();
+        });
+
+        var viewTitle = new ViewTitle("Diagnostics");
+        viewTitle.add(refresh);
+
+        setSizeFull();
+        add(viewTitle, summary, uis, components);
+    }
+
+    private static String kilobytes(long bytes) {
+        return "%,d KB".formatted(Math.ceilDiv(bytes, 1024));
+    }
+}
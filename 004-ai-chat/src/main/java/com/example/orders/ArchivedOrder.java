@@ -0,0 +1,81 @@
+package com.example.orders;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * An order that {@link OrderArchiver} moved out of the order table. Archived
+ * orders are read-only and only show up when history is searched explicitly.
+ */
+@Entity
+@Immutable
+@Table(name = "customer_order_archive")
+public class ArchivedOrder implements OrderDetails {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "customer_name", nullable = false)
+    private String customerName = "";
+
+    @Column(name = "item", nullable = false)
+    private String item = "";
+
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate = LocalDate.now();
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status = OrderStatus.ARCHIVED;
+
+    @Column(name = "completed_date")
+    @Nullable
+    private LocalDate completedDate;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt = Instant.now();
+
+    protected ArchivedOrder() { // jpa requires a no-arg constructor
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getItem() {
+        return item;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public @Nullable LocalDate getCompletedDate() {
+        return completedDate;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
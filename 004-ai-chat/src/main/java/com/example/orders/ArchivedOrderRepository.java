@@ -0,0 +1,18 @@
+package com.example.orders;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+
+interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long>, JpaSpecificationExecutor<ArchivedOrder> {
+
+    /**
+     * Returns the first {@code limit} archived orders matching the filter, with
+     * the same criteria as {@link OrderRepository#findMatching}.
+     */
+    default List<ArchivedOrder> findMatching(OrderFilter filter, Sort sort, int limit) {
+        return findBy(OrderFilterRepositoryImpl.matching(filter), query -> query.sortBy(sort).limit(limit).all());
+    }
+}
@@ -8,10 +8,12 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "customer_order")
-public class Order {
+public class Order implements OrderDetails {
 
+    // the sequence is created by the flyway migration, so its name is spelled out
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_order_seq")
+    @SequenceGenerator(name = "customer_order_seq", sequenceName = "customer_order_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long id;
 
@@ -0,0 +1,135 @@
+package com.example.orders;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order counts and amounts per status and due date, kept in the
+ * {@code order_aggregate} table. {@link OrderService} adjusts the totals in the
+ * same transaction as every write, so reading them costs the same no matter how
+ * many orders there are.
+ */
+@Component
+class OrderAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderAggregates.class);
+
+    private final JdbcClient jdbc;
+    private final OrderRepository orderRepository;
+
+    OrderAggregates(JdbcClient jdbc, OrderRepository orderRepository) {
+        this.jdbc = jdbc;
+        this.orderRepository = orderRepository;
+    }
+
+    void add(OrderBucket bucket) {
+        merge(bucket.status(), bucket.dueDate(), bucket.count(), bucket.amount());
+    }
+
+    void subtract(OrderBucket bucket) {
+        merge(bucket.status(), bucket.dueDate(), -bucket.count(), bucket.amount().negate());
+    }
+
+    // adds the delta to the bucket's row, creating the row on first use
+    private void merge(OrderStatus status, LocalDate dueDate, long count, BigDecimal amount) {
+        jdbc.sql("""
+                        merge into order_aggregate a
+                        using (values (cast(:status as varchar(20)), cast(:dueDate as date),
+                                cast(:count as bigint), cast(:amount as numeric(19, 2))))
+                            d(status, due_date, order_count, total_amount)
+                        on a.status = d.status and a.due_date = d.due_date
+                        when matched then update set
+                            order_count = a.order_count + d.order_count,
+                            total_amount = a.total_amount + d.total_amount
+                        when not matched then insert (status, due_date, order_count, total_amount)
+                            values (d.status, d.due_date, d.order_count, d.total_amount)
+                        """)
+                .param("status", status.name())
+                .param("dueDate", dueDate)
+                .param("count", count)
+                .param("amount", amount)
+                .update();
+    }
+
+    /**
+     * Sums the buckets matching the given criteria. Null criteria are ignored.
+     */
+    @Transactional(readOnly = true)
+    OrderTotals totals(@Nullable OrderStatus status, @Nullable LocalDate dueFrom, @Nullable LocalDate dueTo) {
+        return jdbc.sql("""
+                        select coalesce(sum(order_count), 0), coalesce(sum(total_amount), 0)
+                        from order_aggregate
+                        where (cast(:status as varchar(20)) is null or status = :status)
+                          and (cast(:dueFrom as date) is null or due_date >= :dueFrom)
+                          and (cast(:dueTo as date) is null or due_date <= :dueTo)
+                        """)
+                .param("status", status != null ? status.name() : null)
+                .param("dueFrom", dueFrom)
+                .param("dueTo", dueTo)
+                .query((rs, rowNum) -> new OrderTotals(rs.getLong(1), rs.getBigDecimal(2)))
+                .single();
+    }
+
+    /**
+     * Recomputes all totals from the order table.
+     */
+    @Transactional
+    void rebuild() {
+        jdbc.sql("delete from order_aggregate").update();
+        jdbc.sql("""
+                        insert into order_aggregate (status, due_date, order_count, total_amount)
+                        select status, due_date, count(*), sum(amount) from customer_order
+                        group by status, due_date
+                        """)
+                .update();
+    }
+
+    /**
+     * Compares the totals with the order table and rebuilds them if they drifted,
+     * e.g. after rows were changed by hand in the database.
+     */
+    @Scheduled(initialDelayString = "${orders.aggregates.verify-interval:PT1H}",
+            fixedDelayString = "${orders.aggregates.verify-interval:PT1H}")
+    @Transactional
+    void verify() {
+        var expected = toMap(orderRepository.sumByBucket());
+        var actual = toMap(jdbc.sql("select status, due_date, order_count, total_amount from order_aggregate")
+                .query((rs, rowNum) -> new OrderBucket(OrderStatus.valueOf(rs.getString(1)),
+                        rs.getObject(2, LocalDate.class), rs.getLong(3), rs.getBigDecimal(4)))
+                .list());
+        // buckets whose orders are all gone stay behind with zero totals
+        actual.values().removeIf(bucket -> bucket.count() == 0);
+
+        var keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        var drifted = keys.stream()
+                .filter(key -> !sameTotals(expected.get(key), actual.get(key)))
+                .count();
+        if (drifted > 0) {
+            log.warn("{} order aggregate buckets were out of sync with the order table, rebuilding", drifted);
+            rebuild();
+        }
+    }
+
+    private static Map<List<Object>, OrderBucket> toMap(List<OrderBucket> buckets) {
+        var map = new HashMap<List<Object>, OrderBucket>();
+        buckets.forEach(bucket -> map.put(List.of(bucket.status(), bucket.dueDate()), bucket));
+        return map;
+    }
+
+    private static boolean sameTotals(@Nullable OrderBucket a, @Nullable OrderBucket b) {
+        return a != null && b != null && a.count() == b.count() && a.amount().compareTo(b.amount()) == 0;
+    }
+}
@@ -1,34 +1,118 @@
 package com.example.orders;
 
+import com.example.base.ai.PlainTextResultConverter;
+import org.jspecify.annotations.Nullable;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Tools that the LLM can call during a chat conversation to query and modify
- * orders. Registered on the AIOrchestrator with {@code withTools()}.
+ * orders. Registered on the AIOrchestrator with {@code withTools()}. The tools
+ * keep no state, so all chat sessions share one instance.
  */
+@Component
 public class OrderAiTools {
 
     private final OrderService orderService;
-    private final Runnable onDataChanged;
+    private final OrderResultFormat resultFormat;
 
-    public OrderAiTools(OrderService orderService, Runnable onDataChanged) {
+    OrderAiTools(OrderService orderService,
+            @Value("${orders.ai.result-format:table}") OrderResultFormat resultFormat) {
         this.orderService = orderService;
-        this.onDataChanged = onDataChanged;
+        this.resultFormat = resultFormat;
     }
 
     // the llm reads the @Tool descriptions to decide when to call each method;
-    // spring ai converts the orders to and from json automatically
-    @Tool(description = "Returns all orders")
-    public List<Order> getAllOrders() {
-        return orderService.findAll();
+    // spring ai converts arguments and results to and from json automatically,
+    // except for the order lists, which are encoded in the configured
+    // resultFormat and passed through as they are by PlainTextResultConverter.
+    // the targeted tools below keep results small, so prefer them over
+    // getAllOrders which sends the whole table (and isn't cached for the same
+    // reason: one entry would hold every order)
+    @Tool(description = "Returns all orders. Expensive: prefer searchOrders, getOrderTotals or getLargestOrders",
+            resultConverter = PlainTextResultConverter.class)
+    public String getAllOrders() {
+        if (resultFormat == OrderResultFormat.JSON) {
+            return resultFormat.encode(orderService.findAll());
+        }
+        // the table is written row by row while the orders stream in from the
+        // database, so they never all sit in memory at once
+        var table = new StringBuilder();
+        OrderResultFormat.appendTableHeader(table);
+        orderService.forEachOrder(order -> OrderResultFormat.appendTableRow(table, order));
+        return table.toString();
     }
 
-    @Tool(description = "Updates orders in database")
-    public void updateOrders(List<Order> orders) {
-        orderService.save(orders);
-        // tells the ui to refresh
-        onDataChanged.run();
+    @Tool(description = "Finds orders matching all given filters, ordered by due date. "
+            + "Returns at most " + OrderService.MAX_SEARCH_RESULTS + " orders",
+            resultConverter = PlainTextResultConverter.class)
+    public String searchOrders(
+            @ToolParam(required = false, description = "Only orders with this status") @Nullable OrderStatus status,
+            @ToolParam(required = false, description = "Part of the customer name, case-insensitive") @Nullable String customerName,
+            @ToolParam(required = false, description = "Earliest due date, inclusive") @Nullable LocalDate dueFrom,
+            @ToolParam(required = false, description = "Latest due date, inclusive") @Nullable LocalDate dueTo,
+            @ToolParam(description = "Maximum number of orders to return") int limit) {
+        // reads are cached, already encoded, until the next write, so repeating
+        // a question is free
+        return orderService.cachedRead("searchOrders", Arrays.asList(status, customerName, dueFrom, dueTo, limit),
+                () -> resultFormat.encode(orderService.search(status, customerName, dueFrom, dueTo, limit)));
+    }
+
+    @Tool(description = "Searches the history of old archived and long-completed orders, which the other "
+            + "tools don't see. Only use it when the user asks about history. Returns at most "
+            + OrderService.MAX_SEARCH_RESULTS + " orders",
+            resultConverter = PlainTextResultConverter.class)
+    public String searchOrderHistory(
+            @ToolParam(required = false, description = "Only orders with this status") @Nullable OrderStatus status,
+            @ToolParam(required = false, description = "Part of the customer name, case-insensitive") @Nullable String customerName,
+            @ToolParam(required = false, description = "Earliest due date, inclusive") @Nullable LocalDate dueFrom,
+            @ToolParam(required = false, description = "Latest due date, inclusive") @Nullable LocalDate dueTo,
+            @ToolParam(description = "Maximum number of orders to return") int limit) {
+        // the archive only changes when orders move there, which bumps the data version too
+        return orderService.cachedRead("searchOrderHistory", Arrays.asList(status, customerName, dueFrom, dueTo, limit),
+                () -> resultFormat.encode(orderService.searchArchive(status, customerName, dueFrom, dueTo, limit)));
+    }
+
+    @Tool(description = "Counts the orders matching all given filters and sums their amounts. "
+            + "Use this for 'how many' and 'how much' questions")
+    public OrderTotals getOrderTotals(
+            @ToolParam(required = false, description = "Only orders with this status") @Nullable OrderStatus status,
+            @ToolParam(required = false, description = "Part of the customer name, case-insensitive") @Nullable String customerName,
+            @ToolParam(required = false, description = "Earliest due date, inclusive") @Nullable LocalDate dueFrom,
+            @ToolParam(required = false, description = "Latest due date, inclusive") @Nullable LocalDate dueTo) {
+        return orderService.cachedRead("getOrderTotals", Arrays.asList(status, customerName, dueFrom, dueTo),
+                () -> orderService.totals(status, customerName, dueFrom, dueTo));
+    }
+
+    @Tool(description = "Returns the orders with the highest amounts, largest first",
+            resultConverter = PlainTextResultConverter.class)
+    public String getLargestOrders(
+            @ToolParam(required = false, description = "Only orders with this status") @Nullable OrderStatus status,
+            @ToolParam(description = "Number of orders to return") int limit) {
+        return orderService.cachedRead("getLargestOrders", Arrays.asList(status, limit),
+                () -> resultFormat.encode(orderService.findLargest(status, limit)));
+    }
+
+    // write tools take ids instead of whole orders, so the llm only sends
+    // what changes and gets back the affected ids; open grids learn about
+    // the change through the OrderChangeBus
+    @Tool(description = "Sets the status of the orders with the given ids. Returns the number and ids of updated orders")
+    public OrderUpdateResult setOrderStatus(
+            @ToolParam(description = "Ids of the orders to update") List<Long> orderIds,
+            @ToolParam(description = "The new status") OrderStatus status) {
+        return orderService.updateStatus(orderIds, status);
+    }
+
+    @Tool(description = "Archives all orders that were completed before the given date. "
+            + "Returns the number and ids of archived orders")
+    public OrderUpdateResult archiveCompletedBefore(
+            @ToolParam(description = "Orders completed before this date are archived") LocalDate date) {
+        return orderService.archiveCompletedBefore(date);
     }
 }
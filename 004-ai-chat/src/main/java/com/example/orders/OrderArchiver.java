@@ -0,0 +1,102 @@
+package com.example.orders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves cold orders, ARCHIVED ones and those COMPLETED long ago, from the order
+ * table to the archive table, so the grid, the counts and the AI tools only
+ * work on the orders that still matter. Runs in small batches, each in its own
+ * short transaction, so writers are never locked out for long. Every node of a
+ * cluster runs it; the row locks below keep them from moving the same orders.
+ */
+@Component
+class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderAggregates aggregates;
+    private final JdbcClient jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int completedDays;
+    private final int batchSize;
+
+    OrderArchiver(OrderRepository orderRepository, OrderAggregates aggregates, JdbcClient jdbc,
+            TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+            @Value("${orders.archive.completed-days:90}") int completedDays,
+            @Value("${orders.archive.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.aggregates = aggregates;
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.completedDays = completedDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${orders.archive.interval:PT1H}",
+            fixedDelayString = "${orders.archive.interval:PT1H}")
+    void archive() {
+        var completedBefore = LocalDate.now().minusDays(completedDays);
+        var total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(completedBefore));
+            total += moved;
+        } while (moved == batchSize);
+
+        if (total > 0) {
+            log.info("Moved {} cold orders to the archive", total);
+        }
+    }
+
+    private int moveBatch(LocalDate completedBefore) {
+        // the row locks keep a status change from making an order live again
+        // between this select and the move, and skip locked lets the archiver
+        // of another node take the next rows instead of the same ones
+        var ids = jdbc.sql("""
+                        select order_id from customer_order
+                        where status = :archived
+                           or (status = :completed and completed_date < :completedBefore)
+                        order by order_id
+                        fetch first :batchSize rows only
+                        for update skip locked
+                        """)
+                .param("archived", OrderStatus.ARCHIVED.name())
+                .param("completed", OrderStatus.COMPLETED.name())
+                .param("completedBefore", completedBefore)
+                .param("batchSize", batchSize)
+                .query(Long.class)
+                .list();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        orderRepository.sumByBucket(ids).forEach(aggregates::subtract);
+        jdbc.sql("""
+                        insert into customer_order_archive (order_id, customer_name, item, amount, due_date,
+                            status, completed_date, archived_at)
+                        select order_id, customer_name, item, amount, due_date, status, completed_date,
+                            current_timestamp
+                        from customer_order where order_id in (:ids)
+                        """)
+                .param("ids", ids)
+                .update();
+        jdbc.sql("delete from customer_order where order_id in (:ids)")
+                .param("ids", ids)
+                .update();
+        // rows disappear from the order table, so grids reload completely
+        eventPublisher.publishEvent(new OrdersChangedEvent(List.copyOf(ids), true));
+        return ids.size();
+    }
+}
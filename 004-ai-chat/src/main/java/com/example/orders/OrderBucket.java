@@ -0,0 +1,30 @@
+package com.example.orders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Number and combined amount of the orders with one status and due date; the
+ * unit in which {@link OrderAggregates} keeps its totals.
+ */
+public record OrderBucket(OrderStatus status, LocalDate dueDate, long count, BigDecimal amount) {
+
+    OrderBucket withStatus(OrderStatus newStatus) {
+        return new OrderBucket(newStatus, dueDate, count, amount);
+    }
+
+    static List<OrderBucket> of(Collection<Order> orders) {
+        record Key(OrderStatus status, LocalDate dueDate) {
+        }
+        return orders.stream()
+                .collect(Collectors.groupingBy(order -> new Key(order.getStatus(), order.getDueDate())))
+                .entrySet().stream()
+                .map(entry -> new OrderBucket(entry.getKey().status(), entry.getKey().dueDate(),
+                        entry.getValue().size(),
+                        entry.getValue().stream().map(Order::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add)))
+                .toList();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.orders;
+
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Tells every subscriber, typically one per open orders view, which orders
+ * were changed by anyone. Changes are collected over a short window and
+ * delivered as one batch, and a subscriber that is still busy with its last
+ * batch (e.g. a slow push connection) keeps collecting until it is done.
+ * Subscribers run on their own threads, never on the writer's.
+ */
+@Component
+public class OrderChangeBus {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderChangeBus.class);
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final TaskScheduler scheduler;
+    private final Executor executor;
+    private final Duration coalesceWindow;
+    private final int maxBatchIds;
+    private final Counter deliveredBatches;
+    private final Counter deferredBatches;
+
+    OrderChangeBus(TaskScheduler scheduler, @Qualifier("applicationTaskExecutor") Executor executor,
+            @Value("${orders.changes.coalesce-window:250ms}") Duration coalesceWindow,
+            @Value("${orders.changes.max-batch-ids:200}") int maxBatchIds,
+            MeterRegistry meterRegistry) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.coalesceWindow = coalesceWindow;
+        this.maxBatchIds = maxBatchIds;
+        this.deliveredBatches = Counter.builder("orders.changes.batches")
+                .description("Change batches delivered to subscribers")
+                .tag("result", "delivered")
+                .register(meterRegistry);
+        this.deferredBatches = Counter.builder("orders.changes.batches")
+                .description("Change batches held back because the subscriber was still busy")
+                .tag("result", "deferred")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a subscriber for batches of order changes. The subscriber returns
+     * a future that completes when it has handled the batch, such as the one
+     * returned by {@code UI.access()}; no new batch is delivered before that.
+     */
+    public Registration subscribe(Function<OrdersChangedEvent, Future<?>> subscriber) {
+        var subscription = new Subscription(subscriber);
+        subscriptions.add(subscription);
+        return () -> subscriptions.remove(subscription);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onOrdersChanged(OrdersChangedEvent event) {
+        subscriptions.forEach(subscription -> subscription.add(event));
+    }
+
+    private final class Subscription {
+
+        private final Function<OrdersChangedEvent, Future<?>> subscriber;
+        private final Set<Long> pendingIds = new LinkedHashSet<>();
+        private boolean pendingStructural;
+        private boolean flushScheduled;
+        // the subscriber call, completing with the future it returned
+        private CompletableFuture<Future<?>> inFlight = CompletableFuture.completedFuture(
+                CompletableFuture.completedFuture(null));
+
+        Subscription(Function<OrdersChangedEvent, Future<?>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        synchronized void add(OrdersChangedEvent event) {
+            // past a certain size, listing ids is no cheaper than reloading everything
+            if (pendingStructural || event.structural() || pendingIds.size() + event.ids().size() > maxBatchIds) {
+                pendingStructural = true;
+                pendingIds.clear();
+            } else {
+                pendingIds.addAll(event.ids());
+            }
+            scheduleFlush();
+        }
+
+        // only takes the batch under the lock: the subscriber reloads orders,
+        // and add() on a writer's after-commit thread mustn't wait for that
+        private synchronized void flush() {
+            flushScheduled = false;
+            if (!subscriptions.contains(this)) {
+                return;
+            }
+            if (isBusy()) {
+                deferredBatches.increment();
+                scheduleFlush();
+                return;
+            }
+            var batch = new OrdersChangedEvent(List.copyOf(pendingIds), pendingStructural);
+            pendingIds.clear();
+            pendingStructural = false;
+            deliveredBatches.increment();
+            inFlight = CompletableFuture.supplyAsync(() -> subscriber.apply(batch), executor)
+                    .whenComplete((handled, error) -> {
+                        if (error != null) {
+                            log.warn("Order change subscriber failed on a batch of {} orders (structural: {})",
+                                    batch.ids().size(), batch.structural(), error);
+                        }
+                    });
+        }
+
+        // a failed call is done, the next batch may try again
+        private boolean isBusy() {
+            if (!inFlight.isDone()) {
+                return true;
+            }
+            return !inFlight.isCompletedExceptionally() && !inFlight.join().isDone();
+        }
+
+        private void scheduleFlush() {
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, Instant.now().plus(coalesceWindow));
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.orders;
+
+import com.example.base.cluster.ClusterChange;
+import com.example.base.cluster.ClusterChanges;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Shares order changes with the other nodes of a cluster. Local changes are
+ * passed on after commit; changes from other nodes are published here as
+ * {@link OrdersChangedEvent}s, so the count cache, the data version and the
+ * open grids react to them exactly as to local ones.
+ */
+@Component
+class OrderClusterRelay {
+
+    private static final String TOPIC = "orders";
+
+    private final ClusterChanges clusterChanges;
+
+    OrderClusterRelay(ClusterChanges clusterChanges, ApplicationEventPublisher eventPublisher) {
+        this.clusterChanges = clusterChanges;
+        clusterChanges.subscribe(TOPIC, change -> eventPublisher.publishEvent(
+                new OrdersChangedEvent(change.ids(), change.structural(), true)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onOrdersChanged(OrdersChangedEvent event) {
+        // a remote change came from the cluster, sending it back would loop
+        if (!event.remote()) {
+            clusterChanges.publish(new ClusterChange(TOPIC, event.ids(), event.structural()));
+        }
+    }
+}
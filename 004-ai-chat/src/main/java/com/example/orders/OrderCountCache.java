@@ -0,0 +1,60 @@
+package com.example.orders;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers row counts for the grid queries until the next write, so a grid
+ * refresh doesn't run {@code count(*)} again when nothing changed.
+ */
+@Component
+class OrderCountCache {
+
+    // every filter the users combine is a key, so keep only the most used ones
+    private static final int MAX_KEYS = 1_000;
+
+    private final Cache<Object, Long> exactCounts = Caffeine.newBuilder().maximumSize(MAX_KEYS).build();
+    // survives invalidation: good enough as an estimate, never for an exact count
+    private final Cache<Object, Long> lastKnownCounts = Caffeine.newBuilder().maximumSize(MAX_KEYS).build();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cached count for the key, or runs the counter and caches its
+     * result.
+     */
+    long exact(Object key, LongSupplier counter) {
+        var cached = exactCounts.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        // a write that commits while we count makes the result stale, so only
+        // cache it if no invalidation happened in between
+        var generationBefore = generation.get();
+        var count = counter.getAsLong();
+        lastKnownCounts.put(key, count);
+        if (generation.get() == generationBefore) {
+            exactCounts.put(key, count);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the most recent count for the key, even if writes happened since.
+     */
+    long lastKnown(Object key, LongSupplier counter) {
+        var known = lastKnownCounts.getIfPresent(key);
+        return known != null ? known : exact(key, counter);
+    }
+
+    // runs after the writing transaction commits, so the next count sees the change
+    @TransactionalEventListener(fallbackExecution = true)
+    void onOrdersChanged(OrdersChangedEvent event) {
+        generation.incrementAndGet();
+        exactCounts.invalidateAll();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.orders;
+
+import com.example.base.ai.AssistantDataVersion;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A number that goes up whenever orders are written. Anything computed from
+ * order data and tagged with the version it was read at is still valid as long
+ * as the version hasn't moved. The assistant's answer cache uses it too.
+ */
+@Component
+class OrderDataVersion implements AssistantDataVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public long current() {
+        return version.get();
+    }
+
+    // after commit: a reader that sees the new version also sees the new data
+    @TransactionalEventListener(fallbackExecution = true)
+    void onOrdersChanged(OrdersChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -1,21 +1,37 @@
 package com.example.orders;
 
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Date;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
 /**
- * Seeds the database with ~100 demo orders on first startup, so there is
- * interesting data to ask the AI assistant about.
+ * Seeds the database with demo orders on first startup, so there is
+ * interesting data to ask the AI assistant about. By default that's ~100
+ * orders; {@code orders.demo-data.*} scales it up to millions for load testing.
  */
 @Component
 class OrderDemoDataGenerator implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderDemoDataGenerator.class);
+
+    // each partition has its own random generator seeded from its number, so
+    // the data is the same no matter how many threads generate it
+    private static final int PARTITION_SIZE = 10_000;
+
     private static final String[] CUSTOMERS = { "Alice Johnson", "Bob Smith", "Carol White", "David Brown",
             "Emma Davis", "Frank Miller", "Grace Wilson", "Henry Moore", "Isabella Taylor", "Jack Anderson",
             "Karen Thomas", "Liam Jackson", "Mia Martin", "Noah Lee", "Olivia Perez", "Peter Clark",
@@ -25,49 +41,115 @@ class OrderDemoDataGenerator implements CommandLineRunner {
             "Webcam", "Noise-Cancelling Headphones", "Monitor Arm", "Desk Lamp", "External SSD", "Phone Charger",
             "Bluetooth Speaker", "Ergonomic Chair Cushion", "Cable Organizer", "Screen Cleaner Kit", "Notebook Set" };
 
+    private static final String INSERT_SQL = """
+            insert into customer_order (order_id, customer_name, item, amount, due_date, status, completed_date)
+            values (?, ?, ?, ?, ?, ?, ?)
+            """;
+
     private final OrderRepository orderRepository;
+    private final OrderAggregates orderAggregates;
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderDemoDataProperties properties;
 
-    OrderDemoDataGenerator(OrderRepository orderRepository) {
+    OrderDemoDataGenerator(OrderRepository orderRepository, OrderAggregates orderAggregates,
+            JdbcTemplate jdbcTemplate, OrderDemoDataProperties properties) {
         this.orderRepository = orderRepository;
+        this.orderAggregates = orderAggregates;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
     }
 
     @Override
-    public void run(String... args) {
+    public void run(String... args) throws InterruptedException, ExecutionException {
         // only seed an empty database
         if (orderRepository.count() > 0) {
             return;
         }
 
-        var random = new Random(42);
+        var start = System.nanoTime();
         var today = LocalDate.now();
-        var orders = new ArrayList<Order>();
-
-        // a well-known order to cancel in the demo
-        orders.add(new Order("John Snow", "Winter Coat", new BigDecimal("129.99"), today.plusDays(3),
-                OrderStatus.PENDING));
-
-        for (int i = 0; i < 99; i++) {
-            var customer = CUSTOMERS[random.nextInt(CUSTOMERS.length)];
-            var item = ITEMS[random.nextInt(ITEMS.length)];
-            var amount = BigDecimal.valueOf(5 + random.nextDouble() * 195).setScale(2, RoundingMode.HALF_UP);
-
-            // spread due dates from 20 days ago to 20 days ahead, with a few due today
-            var dueDate = i % 12 == 0 ? today : today.plusDays(random.nextInt(41) - 20L);
-
-            var status = switch (random.nextInt(10)) {
-                case 0, 1, 2 -> OrderStatus.COMPLETED;
-                case 3 -> OrderStatus.CANCELLED;
-                default -> OrderStatus.PENDING;
-            };
-
-            var order = new Order(customer, item, amount, dueDate, status);
-            if (status == OrderStatus.COMPLETED) {
-                // completed 0-15 days ago, so some are older than a week
-                order.setCompletedDate(today.minusDays(random.nextInt(16)));
+        var partitions = (properties.count() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        var tasks = IntStream.range(0, partitions)
+                .mapToObj(partition -> (Callable<Integer>) () -> insertPartition(partition, today))
+                .toList();
+        try (var executor = Executors.newFixedThreadPool(properties.parallelism())) {
+            for (var result : executor.invokeAll(tasks)) {
+                result.get(); // rethrows a failed partition
+            }
+        }
+
+        // the rows bypassed jpa, so move the id sequence past them (with room
+        // for the entity's id pool of 50) and compute the totals in one go
+        jdbcTemplate.execute("alter sequence customer_order_seq restart with " + (properties.count() + 51));
+        orderAggregates.rebuild();
+
+        var seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Generated {} demo orders in {} s ({} rows/s)", properties.count(),
+                String.format("%.1f", seconds), Math.round(properties.count() / seconds));
+    }
+
+    private int insertPartition(int partition, LocalDate today) {
+        var random = new Random(properties.seed() + partition);
+        var first = partition * PARTITION_SIZE;
+        var end = Math.min(first + PARTITION_SIZE, properties.count());
+
+        var batch = new ArrayList<Object[]>(properties.batchSize());
+        for (int i = first; i < end; i++) {
+            batch.add(i == 0 ? wellKnownOrder(today) : randomOrder(i, random, today));
+            if (batch.size() == properties.batchSize()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+        return end - first;
+    }
+
+    // a well-known order to cancel in the demo, always id 1
+    private static Object[] wellKnownOrder(LocalDate today) {
+        return row(0, "John Snow", "Winter Coat", new BigDecimal("129.99"), today.plusDays(3),
+                OrderStatus.PENDING, null);
+    }
+
+    private Object[] randomOrder(int index, Random random, LocalDate today) {
+        var customer = customerName(random.nextInt(properties.customers()));
+        var item = ITEMS[random.nextInt(ITEMS.length)];
+        var amount = BigDecimal.valueOf(5 + random.nextDouble() * 195).setScale(2, RoundingMode.HALF_UP);
+
+        // spread due dates around today, with a few due today
+        var spread = properties.daysSpread();
+        var dueDate = index % 12 == 0 ? today : today.plusDays(random.nextInt(2 * spread + 1) - (long) spread);
+
+        var status = randomStatus(random);
+        // completed up to three quarters of the spread ago, so some are older than a week
+        var completedDate = status == OrderStatus.COMPLETED
+                ? today.minusDays(random.nextInt(spread * 3 / 4 + 1))
+                : null;
+        return row(index, customer, item, amount, dueDate, status, completedDate);
+    }
+
+    private OrderStatus randomStatus(Random random) {
+        var weights = properties.statusWeights();
+        var roll = random.nextInt(weights.values().stream().mapToInt(Integer::intValue).sum());
+        // iterate in enum order, a map's own order isn't stable across runs
+        for (var status : OrderStatus.values()) {
+            roll -= weights.getOrDefault(status, 0);
+            if (roll < 0) {
+                return status;
             }
-            orders.add(order);
         }
+        throw new IllegalStateException("Status weights must be positive");
+    }
+
+    private static String customerName(int index) {
+        return index < CUSTOMERS.length ? CUSTOMERS[index] : "Customer " + (index + 1);
+    }
 
-        orderRepository.saveAll(orders);
+    private static Object[] row(int index, String customer, String item, BigDecimal amount, LocalDate dueDate,
+            OrderStatus status, @Nullable LocalDate completedDate) {
+        return new Object[] { index + 1L, customer, item, amount, Date.valueOf(dueDate), status.name(),
+                completedDate != null ? Date.valueOf(completedDate) : null };
     }
 }
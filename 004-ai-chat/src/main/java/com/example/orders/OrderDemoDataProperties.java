@@ -0,0 +1,39 @@
+package com.example.orders;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Settings of the {@link OrderDemoDataGenerator}, read from
+ * {@code orders.demo-data.*}. The same settings always produce the same
+ * orders, relative to today's date.
+ *
+ * @param count
+ *            number of orders to generate
+ * @param seed
+ *            seed for the random generator
+ * @param daysSpread
+ *            due dates fall between this many days ago and this many days ahead
+ * @param customers
+ *            number of distinct customers
+ * @param statusWeights
+ *            relative frequency of each status
+ * @param parallelism
+ *            number of threads generating and inserting orders
+ * @param batchSize
+ *            rows per jdbc batch insert
+ */
+@ConfigurationProperties("orders.demo-data")
+record OrderDemoDataProperties(@DefaultValue("100") int count, @DefaultValue("42") long seed,
+        @DefaultValue("20") int daysSpread, @DefaultValue("20") int customers,
+        @DefaultValue Map<OrderStatus, Integer> statusWeights, @DefaultValue("4") int parallelism,
+        @DefaultValue("1000") int batchSize) {
+
+    OrderDemoDataProperties {
+        if (statusWeights.isEmpty()) {
+            statusWeights = Map.of(OrderStatus.PENDING, 6, OrderStatus.COMPLETED, 3, OrderStatus.CANCELLED, 1);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.orders;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The fields shared by current and archived orders.
+ */
+public interface OrderDetails {
+
+    @Nullable
+    Long getId();
+
+    String getCustomerName();
+
+    String getItem();
+
+    BigDecimal getAmount();
+
+    LocalDate getDueDate();
+
+    OrderStatus getStatus();
+
+    @Nullable
+    LocalDate getCompletedDate();
+}
@@ -0,0 +1,116 @@
+package com.example.orders;
+
+import com.example.base.ai.FastPathIntent;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Handles the most common assistant requests without the model: changing the
+ * status of orders given by id ("cancel order 57", "complete orders 3 and 4")
+ * and listing the orders due today. Only messages that consist of nothing but
+ * such a command match; anything else, even a slight variation, goes to the
+ * model.
+ */
+@Component
+class OrderFastPath implements FastPathIntent {
+
+    private static final Pattern STATUS_COMMAND = Pattern.compile(
+            "(?:please\\s+)?(cancel|complete|archive)\\s+orders?\\s+(#?\\d{1,18}(?:\\s*(?:,|and|&)\\s*#?\\d{1,18})*)[.!]?",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DUE_TODAY = Pattern.compile(
+            "(?:(?:please\\s+)?(?:show|list)(?:\\s+me)?\\s+(?:all\\s+|the\\s+)?|(?:which|what)\\s+)?"
+                    + "orders\\s+(?:are\\s+)?due\\s+today[.!?]?",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ORDER_ID = Pattern.compile("\\d+");
+
+    private static final Map<String, OrderStatus> STATUS_BY_VERB = Map.of(
+            "cancel", OrderStatus.CANCELLED,
+            "complete", OrderStatus.COMPLETED,
+            "archive", OrderStatus.ARCHIVED);
+
+    private final OrderService orderService;
+
+    OrderFastPath(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @Override
+    public Optional<String> handle(String message) {
+        var text = message.strip();
+
+        var statusCommand = STATUS_COMMAND.matcher(text);
+        if (statusCommand.matches()) {
+            var status = STATUS_BY_VERB.get(statusCommand.group(1).toLowerCase(Locale.ROOT));
+            var ids = new ArrayList<Long>();
+            ORDER_ID.matcher(statusCommand.group(2)).results()
+                    .forEach(id -> ids.add(Long.parseLong(id.group())));
+            return Optional.of(updateStatus(ids, status));
+        }
+
+        if (DUE_TODAY.matcher(text).matches()) {
+            return Optional.of(dueToday());
+        }
+        return Optional.empty();
+    }
+
+    // same wording as the model would use: confirm what changed and mention
+    // the ids that didn't exist
+    private String updateStatus(List<Long> ids, OrderStatus status) {
+        var result = orderService.updateStatus(ids, status);
+        var statusName = status.name().toLowerCase(Locale.ROOT);
+        var answer = new StringBuilder();
+        if (result.updated() == 1) {
+            answer.append("Order ").append(result.ids().getFirst()).append(" is now ").append(statusName).append('.');
+        } else if (result.updated() > 1) {
+            answer.append("Orders ").append(joinIds(result.ids())).append(" are now ").append(statusName).append('.');
+        }
+        var missing = ids.stream().distinct().filter(id -> !result.ids().contains(id)).toList();
+        if (!missing.isEmpty()) {
+            if (!answer.isEmpty()) {
+                answer.append(' ');
+            }
+            answer.append(missing.size() == 1 ? "There is no order " : "There are no orders ")
+                    .append(joinIds(missing)).append('.');
+        }
+        return answer.toString();
+    }
+
+    private String dueToday() {
+        var dueToday = OrderFilter.DUE_TODAY;
+        var count = orderService.count(dueToday);
+        if (count == 0) {
+            return "No orders are due today.";
+        }
+        var orders = orderService.list(dueToday, PageRequest.of(0, OrderService.MAX_SEARCH_RESULTS));
+        var currency = NumberFormat.getCurrencyInstance(Locale.US);
+        var answer = new StringBuilder()
+                .append(count == 1 ? "1 order is due today" : count + " orders are due today");
+        if (count > orders.size()) {
+            answer.append(", here are the first ").append(orders.size());
+        }
+        answer.append(':');
+        for (var order : orders) {
+            answer.append("\n- Order ").append(order.getId()).append(": ")
+                    .append(order.getCustomerName()).append(", ")
+                    .append(order.getItem()).append(", ")
+                    .append(currency.format(order.getAmount())).append(", ")
+                    .append(order.getStatus().name().toLowerCase(Locale.ROOT));
+        }
+        return answer.toString();
+    }
+
+    private static String joinIds(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(", "));
+    }
+}
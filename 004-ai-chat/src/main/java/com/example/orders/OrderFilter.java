@@ -0,0 +1,82 @@
+package com.example.orders;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Criteria for listing, counting and summing orders. An order matches if it
+ * matches every criterion that is set; null criteria don't filter. Filters
+ * with the same criteria are equal, so a filter can key a cached count.
+ *
+ * @param customerName
+ *            part of the customer's name, case-insensitive
+ * @param minAmount
+ *            lowest amount, inclusive
+ * @param maxAmount
+ *            highest amount, inclusive
+ * @param dueFrom
+ *            earliest due date, inclusive
+ * @param dueTo
+ *            latest due date, inclusive
+ * @param dueToday
+ *            only orders due on the day the query runs, instead of the due
+ *            date range
+ */
+public record OrderFilter(@Nullable OrderStatus status, @Nullable String customerName,
+        @Nullable BigDecimal minAmount, @Nullable BigDecimal maxAmount,
+        @Nullable LocalDate dueFrom, @Nullable LocalDate dueTo, boolean dueToday) {
+
+    public static final OrderFilter NONE = new OrderFilter(null, null, null, null, null, null);
+
+    /**
+     * Matches the orders due on the day the query runs.
+     */
+    public static final OrderFilter DUE_TODAY = new OrderFilter(null, null, null, null, null, null, true);
+
+    public OrderFilter {
+        // a blank search field means no customer filter, and "Alice" and
+        // "alice " are the same filter
+        customerName = customerName == null || customerName.isBlank()
+                ? null
+                : customerName.strip().toLowerCase(Locale.ROOT);
+        // "due today" replaces the range, so the range doesn't tell filters apart
+        if (dueToday) {
+            dueFrom = null;
+            dueTo = null;
+        }
+    }
+
+    public OrderFilter(@Nullable OrderStatus status, @Nullable String customerName,
+            @Nullable BigDecimal minAmount, @Nullable BigDecimal maxAmount,
+            @Nullable LocalDate dueFrom, @Nullable LocalDate dueTo) {
+        this(status, customerName, minAmount, maxAmount, dueFrom, dueTo, false);
+    }
+
+    /**
+     * Returns {@code true} if no criterion is set, so every order matches.
+     */
+    public boolean isEmpty() {
+        return equals(NONE);
+    }
+
+    /**
+     * Returns this filter with "due today" turned into a due date range of
+     * {@code today}. Queries resolve it as they run, so a filter that stays
+     * set past midnight matches the new day's orders, and a count cached under
+     * the resolved filter isn't reused on the next day.
+     */
+    OrderFilter on(LocalDate today) {
+        return dueToday ? new OrderFilter(status, customerName, minAmount, maxAmount, today, today) : this;
+    }
+
+    /**
+     * Returns {@code true} if only status and due date are filtered, which the
+     * {@code order_aggregate} table can answer without reading orders.
+     */
+    boolean isAggregatable() {
+        return customerName == null && minAmount == null && maxAmount == null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.orders;
+
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Order queries built from an {@link OrderFilter}, added to
+ * {@link OrderRepository} by Spring Data from
+ * {@link OrderFilterRepositoryImpl}.
+ */
+interface OrderFilterRepository {
+
+    /**
+     * Returns one page of the matching orders, paged and sorted by the
+     * database.
+     */
+    List<Order> findMatching(OrderFilter filter, Pageable pageable);
+
+    long countMatching(OrderFilter filter);
+
+    OrderTotals totalsMatching(OrderFilter filter);
+}
@@ -0,0 +1,97 @@
+package com.example.orders;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// builds one criteria query per call with only the criteria that are set, so
+// the database sees e.g. "where status = ? and amount >= ?" and can pick an
+// index for it, instead of a fixed query full of "? is null or ..." that it
+// has to plan for every combination at once
+class OrderFilterRepositoryImpl implements OrderFilterRepository {
+
+    private final EntityManager entityManager;
+
+    OrderFilterRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Order> findMatching(OrderFilter filter, Pageable pageable) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Order.class);
+        var order = query.from(Order.class);
+        query.select(order)
+                .where(OrderFilterRepositoryImpl.<Order>matching(filter).toPredicate(order, query, cb))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), order, cb));
+        // offset and limit go into the sql, only the page's rows are read
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    // the same predicate as findMatching, so the count always agrees with the rows
+    @Override
+    public long countMatching(OrderFilter filter) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Long.class);
+        var order = query.from(Order.class);
+        query.select(cb.count(order))
+                .where(OrderFilterRepositoryImpl.<Order>matching(filter).toPredicate(order, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // count and sum run in the database, so only two numbers come back
+    @Override
+    public OrderTotals totalsMatching(OrderFilter filter) {
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(OrderTotals.class);
+        var order = query.from(Order.class);
+        query.select(cb.construct(OrderTotals.class, cb.count(order),
+                        cb.coalesce(cb.sum(order.<BigDecimal>get("amount")), BigDecimal.ZERO)))
+                .where(OrderFilterRepositoryImpl.<Order>matching(filter).toPredicate(order, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // also used for the archive, whose columns have the same names
+    static <T extends OrderDetails> Specification<T> matching(OrderFilter filter) {
+        return (order, query, cb) -> {
+            var predicates = new ArrayList<Predicate>();
+            if (filter.status() != null) {
+                predicates.add(cb.equal(order.get("status"), filter.status()));
+            }
+            if (filter.customerName() != null) {
+                // the name is already lower case; a leading wildcard can't use
+                // an index, the other criteria narrow the rows to scan
+                predicates.add(cb.like(cb.lower(order.get("customerName")),
+                        "%" + escapeLike(filter.customerName()) + "%", '\\'));
+            }
+            if (filter.minAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(order.<BigDecimal>get("amount"), filter.minAmount()));
+            }
+            if (filter.maxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(order.<BigDecimal>get("amount"), filter.maxAmount()));
+            }
+            if (filter.dueFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(order.<LocalDate>get("dueDate"), filter.dueFrom()));
+            }
+            if (filter.dueTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(order.<LocalDate>get("dueDate"), filter.dueTo()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // a % or _ typed into the search field matches itself, not any text
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
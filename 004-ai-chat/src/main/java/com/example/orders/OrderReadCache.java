@@ -0,0 +1,39 @@
+package com.example.orders;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Results of the AI tools' order reads, shared by all chat sessions. Entries
+ * are keyed by the data version, so a write makes all earlier results
+ * unreachable and the size bound evicts them over time.
+ */
+@Component
+class OrderReadCache {
+
+    private final Cache<Key, Object> cache;
+
+    OrderReadCache(@Value("${orders.ai.read-cache.max-size:1000}") long maxSize, MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        // hit and miss counts show up as cache.gets{cache=orders.ai.reads}
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders.ai.reads");
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String name, List<?> arguments, long dataVersion, Supplier<T> read) {
+        return (T) cache.get(new Key(name, arguments, dataVersion), key -> read.get());
+    }
+
+    private record Key(String name, List<?> arguments, long dataVersion) {
+    }
+}
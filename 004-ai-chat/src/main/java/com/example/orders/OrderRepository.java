@@ -1,16 +1,83 @@
 package com.example.orders;
 
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Slice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 // spring data generates the database queries from these method names,
-// no sql needed; slice fetches one page of rows at a time
-interface OrderRepository extends JpaRepository<Order, Long> {
+// no sql needed; the filtered grid and ai tool queries come from
+// OrderFilterRepository
+interface OrderRepository extends JpaRepository<Order, Long>, OrderFilterRepository {
 
-    Slice<Order> findAllBy(Pageable pageable);
+    // reads the rows in chunks of 500 while the stream is consumed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Order> streamAllBy();
 
-    Slice<Order> findAllByDueDate(LocalDate dueDate, Pageable pageable);
+    // h2 keeps an approximate row count per table, reading it is free
+    @Query(value = """
+            select row_count_estimate from information_schema.tables
+            where table_schema = current_schema and table_name = 'CUSTOMER_ORDER'
+            """, nativeQuery = true)
+    long estimateRowCount();
+
+    @Query("""
+            select new com.example.orders.OrderBucket(o.status, o.dueDate, 1L, o.amount)
+            from Order o where o.id = :id
+            """)
+    Optional<OrderBucket> findBucket(@Param("id") Long id);
+
+    @Query("""
+            select new com.example.orders.OrderBucket(o.status, o.dueDate, count(o), sum(o.amount))
+            from Order o where o.id in :ids
+            group by o.status, o.dueDate
+            """)
+    List<OrderBucket> sumByBucket(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new com.example.orders.OrderBucket(o.status, o.dueDate, count(o), sum(o.amount))
+            from Order o
+            group by o.status, o.dueDate
+            """)
+    List<OrderBucket> sumByBucket();
+
+    // locks the rows until the transaction ends, in id order so two writers
+    // can't deadlock; a concurrent write of the same orders, or the archiver
+    // moving them, waits for the commit and then sees this one's result
+    @Query(value = """
+            select order_id from customer_order where order_id in :ids
+            order by order_id for update""", nativeQuery = true)
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select o.id from Order o where o.status = :status and o.completedDate < :before")
+    List<Long> findIdsCompletedBefore(@Param("status") OrderStatus status, @Param("before") LocalDate before);
+
+    // bulk updates run as a single sql statement without loading the entities;
+    // clearAutomatically drops any stale copies from the persistence context
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :status where o.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+    // an order that is no longer completed has no completion date
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :status, o.completedDate = null where o.id in :ids")
+    int updateStatusAndClearCompletedDate(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+    // keeps an existing completion date, so re-completing an order doesn't move it
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Order o set o.status = :status, o.completedDate = coalesce(o.completedDate, :completedDate)
+            where o.id in :ids
+            """)
+    int updateStatusAndCompletedDate(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status,
+            @Param("completedDate") LocalDate completedDate);
 }
@@ -0,0 +1,72 @@
+package com.example.orders;
+
+import org.springframework.ai.util.json.JsonParser;
+
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * How the AI tools encode orders for the model.
+ */
+public enum OrderResultFormat {
+
+    /**
+     * A JSON array of objects, repeating every field name in every order.
+     */
+    JSON,
+
+    /**
+     * A header row followed by one {@code |}-separated row per order, with ISO
+     * dates and amounts with two decimals. Uses a fraction of the tokens JSON
+     * needs.
+     */
+    TABLE;
+
+    static final String TABLE_HEADER = "id|customerName|item|amount|dueDate|status|completedDate";
+
+    String encode(List<? extends OrderDetails> orders) {
+        if (this == JSON) {
+            return JsonParser.toJson(orders);
+        }
+        // roughly 64 characters per row, sized up front so the builder doesn't regrow
+        var table = new StringBuilder(TABLE_HEADER.length() + 1 + orders.size() * 64);
+        appendTableHeader(table);
+        orders.forEach(order -> appendTableRow(table, order));
+        return table.toString();
+    }
+
+    static void appendTableHeader(StringBuilder table) {
+        table.append(TABLE_HEADER).append('\n');
+    }
+
+    // writes straight into the builder, one field at a time, without building
+    // an intermediate object per order
+    static void appendTableRow(StringBuilder table, OrderDetails order) {
+        table.append(order.getId()).append('|');
+        appendText(table, order.getCustomerName());
+        table.append('|');
+        appendText(table, order.getItem());
+        table.append('|')
+                .append(order.getAmount().setScale(2, RoundingMode.HALF_UP).toPlainString()).append('|')
+                .append(order.getDueDate()).append('|')
+                .append(order.getStatus().name()).append('|');
+        if (order.getCompletedDate() != null) {
+            table.append(order.getCompletedDate());
+        }
+        table.append('\n');
+    }
+
+    // the separator and line breaks would break the table, so they are escaped
+    private static void appendText(StringBuilder table, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            switch (c) {
+                case '|' -> table.append("\\|");
+                case '\\' -> table.append("\\\\");
+                case '\n' -> table.append("\\n");
+                case '\r' -> table.append("\\r");
+                default -> table.append(c);
+            }
+        }
+    }
+}
@@ -1,29 +1,83 @@
 package com.example.orders;
 
+import jakarta.persistence.EntityManager;
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class OrderService {
 
+    /**
+     * Upper bound for rows returned by a single search, so a broad question
+     * can't pull the whole table into the AI's context.
+     */
+    public static final int MAX_SEARCH_RESULTS = 50;
+
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderCountCache countCache;
+    private final OrderAggregates aggregates;
+    private final OrderDataVersion dataVersion;
+    private final OrderReadCache readCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
-    OrderService(OrderRepository orderRepository) {
+    OrderService(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+            OrderCountCache countCache, OrderAggregates aggregates, OrderDataVersion dataVersion,
+            OrderReadCache readCache, ApplicationEventPublisher eventPublisher, EntityManager entityManager) {
         this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.countCache = countCache;
+        this.aggregates = aggregates;
+        this.dataVersion = dataVersion;
+        this.readCache = readCache;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
     }
 
+    /**
+     * Returns one page of the orders matching the filter.
+     */
     @Transactional(readOnly = true)
-    public List<Order> list(Pageable pageable) {
-        return orderRepository.findAllBy(pageable).toList();
+    public List<Order> list(OrderFilter filter, Pageable pageable) {
+        return orderRepository.findMatching(filter.on(LocalDate.now()), withIdTieBreaker(pageable));
     }
 
+    /**
+     * Exact number of orders matching the filter, cached until the next write.
+     */
     @Transactional(readOnly = true)
-    public List<Order> listDueToday(Pageable pageable) {
-        return orderRepository.findAllByDueDate(LocalDate.now(), pageable).toList();
+    public int count(OrderFilter filter) {
+        var resolved = filter.on(LocalDate.now());
+        return Math.toIntExact(countCache.exact(resolved, () -> resolved.isEmpty()
+                ? orderRepository.count()
+                : orderRepository.countMatching(resolved)));
+    }
+
+    /**
+     * Approximate number of orders matching the filter, without scanning the
+     * table if possible: all orders come from the database's table statistics,
+     * a filter uses its last counted value, which may predate recent writes.
+     */
+    @Transactional(readOnly = true)
+    public int estimateCount(OrderFilter filter) {
+        if (filter.isEmpty()) {
+            return Math.toIntExact(orderRepository.estimateRowCount());
+        }
+        var resolved = filter.on(LocalDate.now());
+        return Math.toIntExact(countCache.lastKnown(resolved, () -> orderRepository.countMatching(resolved)));
     }
 
     @Transactional(readOnly = true)
@@ -31,13 +85,178 @@ public class OrderService {
         return orderRepository.findAll();
     }
 
+    /**
+     * Passes every order to the consumer, reading them from the database in
+     * chunks instead of loading the whole table first.
+     */
+    @Transactional(readOnly = true)
+    public void forEachOrder(Consumer<? super Order> consumer) {
+        try (var orders = orderRepository.streamAllBy()) {
+            orders.forEach(order -> {
+                consumer.accept(order);
+                // otherwise the persistence context would keep every order
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<Order> findAllById(Collection<Long> ids) {
+        return orderRepository.findAllById(ids);
+    }
+
+    /**
+     * Finds orders matching all given criteria, ordered by due date. Null
+     * criteria are ignored.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> search(@Nullable OrderStatus status, @Nullable String customerName,
+            @Nullable LocalDate dueFrom, @Nullable LocalDate dueTo, int limit) {
+        var pageable = PageRequest.of(0, clampLimit(limit), Sort.by("dueDate", "id"));
+        return orderRepository.findMatching(new OrderFilter(status, customerName, null, null, dueFrom, dueTo),
+                pageable);
+    }
+
+    /**
+     * Like {@link #search}, but in the archive of old orders that were moved out
+     * of the order table.
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedOrder> searchArchive(@Nullable OrderStatus status, @Nullable String customerName,
+            @Nullable LocalDate dueFrom, @Nullable LocalDate dueTo, int limit) {
+        return archivedOrderRepository.findMatching(new OrderFilter(status, customerName, null, null, dueFrom, dueTo),
+                Sort.by("dueDate", "id"), clampLimit(limit));
+    }
+
+    /**
+     * Returns the orders with the highest amounts, optionally limited to one
+     * status.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> findLargest(@Nullable OrderStatus status, int limit) {
+        var pageable = PageRequest.of(0, clampLimit(limit), Sort.by(Sort.Direction.DESC, "amount", "id"));
+        return orderRepository.findMatching(new OrderFilter(status, null, null, null, null, null), pageable);
+    }
+
+    /**
+     * Counts and sums the orders matching all given criteria. Null criteria are
+     * ignored.
+     */
+    @Transactional(readOnly = true)
+    public OrderTotals totals(@Nullable OrderStatus status, @Nullable String customerName,
+            @Nullable LocalDate dueFrom, @Nullable LocalDate dueTo) {
+        var filter = new OrderFilter(status, customerName, null, null, dueFrom, dueTo);
+        // the aggregate table only knows status and due date, a customer
+        // filter has to look at the orders themselves
+        return filter.isAggregatable()
+                ? aggregates.totals(status, dueFrom, dueTo)
+                : orderRepository.totalsMatching(filter);
+    }
+
+    /**
+     * A number that increases with every committed write to orders.
+     */
+    public long dataVersion() {
+        return dataVersion.current();
+    }
+
+    /**
+     * Runs the given read, or returns the result of an earlier run with the same
+     * name and arguments if no order was written since. The result is shared
+     * between callers and must not be modified.
+     */
+    public <T> T cachedRead(String name, List<?> arguments, Supplier<T> read) {
+        return readCache.get(name, arguments, dataVersion.current(), read);
+    }
+
     @Transactional
     public void save(Order order) {
-        orderRepository.save(order);
+        var isNew = order.getId() == null;
+        // the stored state, before this save overwrites it; locked, so a
+        // concurrent save of the same order can't subtract the same state
+        var previous = isNew || orderRepository.lockExistingIds(List.of(order.getId())).isEmpty()
+                ? null
+                : orderRepository.findBucket(order.getId()).orElse(null);
+        var saved = orderRepository.save(order);
+        if (previous != null) {
+            aggregates.subtract(previous);
+        }
+        OrderBucket.of(List.of(saved)).forEach(aggregates::add);
+        eventPublisher.publishEvent(new OrdersChangedEvent(List.of(saved.getId()), isNew));
     }
 
     @Transactional
     public void save(List<Order> orders) {
-        orderRepository.saveAll(orders);
+        var anyNew = orders.stream().anyMatch(order -> order.getId() == null);
+        var ids = orders.stream().map(Order::getId).filter(Objects::nonNull).toList();
+        var existingIds = ids.isEmpty() ? List.<Long>of() : orderRepository.lockExistingIds(ids);
+        var previous = existingIds.isEmpty() ? List.<OrderBucket>of() : orderRepository.sumByBucket(existingIds);
+        var saved = orderRepository.saveAll(orders);
+        previous.forEach(aggregates::subtract);
+        OrderBucket.of(saved).forEach(aggregates::add);
+        eventPublisher.publishEvent(new OrdersChangedEvent(saved.stream().map(Order::getId).toList(), anyNew));
+    }
+
+    /**
+     * Sets the status of the given orders in one bulk update. Ids that don't
+     * exist are ignored; completing an order also stamps today's date, making
+     * it pending or cancelled again clears it.
+     */
+    @Transactional
+    public OrderUpdateResult updateStatus(Collection<Long> ids, OrderStatus status) {
+        if (ids.isEmpty()) {
+            return OrderUpdateResult.NONE;
+        }
+        // the locks keep the buckets read below true until the update commits
+        var existingIds = orderRepository.lockExistingIds(ids);
+        if (existingIds.isEmpty()) {
+            return OrderUpdateResult.NONE;
+        }
+        // moves the orders' totals from their old status buckets to the new one
+        var previous = orderRepository.sumByBucket(existingIds);
+        var updated = switch (status) {
+            case COMPLETED -> orderRepository.updateStatusAndCompletedDate(existingIds, status, LocalDate.now());
+            // archiving is how completed orders are put away, they keep the
+            // date they were completed on
+            case ARCHIVED -> orderRepository.updateStatus(existingIds, status);
+            case PENDING, CANCELLED -> orderRepository.updateStatusAndClearCompletedDate(existingIds, status);
+        };
+        if (updated != existingIds.size()) {
+            // rolls back rather than moving the totals of rows that weren't changed
+            throw new IllegalStateException("Updated " + updated + " of " + existingIds.size() + " locked orders");
+        }
+        previous.forEach(bucket -> {
+            aggregates.subtract(bucket);
+            aggregates.add(bucket.withStatus(status));
+        });
+        eventPublisher.publishEvent(new OrdersChangedEvent(existingIds, false));
+        return new OrderUpdateResult(existingIds);
+    }
+
+    /**
+     * Archives every order that was completed before the given date.
+     */
+    @Transactional
+    public OrderUpdateResult archiveCompletedBefore(LocalDate date) {
+        var ids = orderRepository.findIdsCompletedBefore(OrderStatus.COMPLETED, date);
+        return updateStatus(ids, OrderStatus.ARCHIVED);
+    }
+
+    // sorting by id last keeps paging stable when the sort column has duplicate
+    // values, and matches the (column, order_id) indexes in V2__order_indexes.sql;
+    // the id follows the last column's direction, so "amount desc, id desc"
+    // can read the (amount, order_id) index backwards
+    private static Pageable withIdTieBreaker(Pageable pageable) {
+        var sort = pageable.getSort();
+        var direction = sort.stream()
+                .reduce((first, second) -> second)
+                .map(Sort.Order::getDirection)
+                .orElse(Sort.Direction.ASC);
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                sort.and(Sort.by(direction, "id")));
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.clamp(limit, 1, MAX_SEARCH_RESULTS);
     }
 }
@@ -0,0 +1,9 @@
+package com.example.orders;
+
+import java.math.BigDecimal;
+
+/**
+ * Number of orders and their combined amount, computed by the database.
+ */
+public record OrderTotals(long count, BigDecimal amount) {
+}
@@ -0,0 +1,15 @@
+package com.example.orders;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk update: the ids of the orders that were changed.
+ */
+public record OrderUpdateResult(int updated, List<Long> ids) {
+
+    static final OrderUpdateResult NONE = new OrderUpdateResult(0, List.of());
+
+    OrderUpdateResult(List<Long> ids) {
+        this(ids.size(), List.copyOf(ids));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.orders;
+
+import java.util.List;
+
+/**
+ * Published by {@link OrderService} after orders were written, and by the
+ * {@link OrderClusterRelay} when another node wrote them.
+ *
+ * @param ids
+ *            the ids of the changed orders
+ * @param structural
+ *            {@code true} if orders were added or removed, not just updated
+ * @param remote
+ *            {@code true} if another node of the cluster wrote the orders
+ */
+public record OrdersChangedEvent(List<Long> ids, boolean structural, boolean remote) {
+
+    public OrdersChangedEvent(List<Long> ids, boolean structural) {
+        this(ids, structural, false);
+    }
+}
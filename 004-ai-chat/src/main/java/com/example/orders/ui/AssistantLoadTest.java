@@ -0,0 +1,250 @@
+package com.example.orders.ui;
+
+import com.example.base.ai.AdmissionChatModel;
+import com.example.base.ai.AssistantChatModels;
+import com.example.orders.OrderAiTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.support.ToolCallbacks;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the assistant end to end: runs many chat sessions at once with the
+ * same session models, system prompt and tools as {@link OrderAssistant}, and
+ * logs latency percentiles, streamed frames, tool usage and server load.
+ * Questions the admission limits turn away are counted on their own and left
+ * out of the latencies, their instant answers would hide the real ones.
+ * Combine with the {@code mock-llm} profile to test without OpenAI:
+ *
+ * <pre>
+ * ./mvnw spring-boot:run -Dspring-boot.run.profiles=mock-llm,load-test
+ * </pre>
+ *
+ * The AIOrchestrator needs a browser-attached UI, so the sessions talk to the
+ * model through a ChatClient, the same path the orchestrator's provider takes.
+ * Each session runs on a virtual or platform thread, following
+ * {@code spring.threads.virtual.enabled} like the rest of the server, so one
+ * switch compares both:
+ *
+ * <pre>
+ * ./mvnw spring-boot:run -Dspring-boot.run.profiles=mock-llm,load-test \
+ *     -Dspring-boot.run.arguments="--assistant.load-test.sessions=1000 --spring.threads.virtual.enabled=false"
+ * </pre>
+ */
+@Component
+@Profile("load-test")
+class AssistantLoadTest implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AssistantLoadTest.class);
+
+    private final AssistantChatModels chatModels;
+    private final OrderAiTools orderAiTools;
+    private final AssistantLoadTestProperties properties;
+    private final ConfigurableApplicationContext context;
+    private final boolean virtualThreads;
+
+    AssistantLoadTest(AssistantChatModels chatModels, OrderAiTools orderAiTools,
+            AssistantLoadTestProperties properties, ConfigurableApplicationContext context,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.chatModels = chatModels;
+        this.orderAiTools = orderAiTools;
+        this.properties = properties;
+        this.context = context;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        var samples = Collections.synchronizedList(new ArrayList<Sample>());
+        var memory = ManagementFactory.getMemoryMXBean();
+        var peakHeap = new AtomicLong();
+        var cpuBefore = processCpuNanos();
+        var start = System.nanoTime();
+
+        var threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        log.info("Starting {} assistant sessions with {} questions each on {} threads", properties.sessions(),
+                properties.questions().size(), virtualThreads ? "virtual" : "platform");
+        // one thread per session either way, only their kind differs
+        try (var executor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(properties.sessions());
+                var heapSampler = Executors.newSingleThreadScheduledExecutor()) {
+            heapSampler.scheduleAtFixedRate(
+                    () -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                    0, 100, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < properties.sessions(); i++) {
+                executor.submit(() -> {
+                    // a session model of its own, wrapped like the assistant's
+                    var chatClient = ChatClient.builder(chatModels.forSession())
+                            .defaultSystem(OrderAssistant.SYSTEM_PROMPT)
+                            .build();
+                    for (var question : properties.questions()) {
+                        samples.add(ask(chatClient, question));
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+            heapSampler.shutdown();
+        }
+
+        report(samples, System.nanoTime() - start, processCpuNanos() - cpuBefore, peakHeap.get(),
+                threads.getPeakThreadCount());
+        SpringApplication.exit(context);
+    }
+
+    private Sample ask(ChatClient chatClient, String question) {
+        // fresh callbacks per question, so their counters belong to this answer only
+        var tools = Arrays.stream(ToolCallbacks.from(orderAiTools))
+                .map(MeasuredToolCallback::new).toList();
+        var firstToken = new AtomicLong();
+        var frames = new AtomicInteger();
+        var rejected = new AtomicBoolean();
+        var start = System.nanoTime();
+        try {
+            chatClient.prompt()
+                    .user(question)
+                    .toolCallbacks(tools.toArray(ToolCallback[]::new))
+                    .stream()
+                    .chatResponse()
+                    .doOnNext(response -> {
+                        var result = response.getResult();
+                        if (result == null) {
+                            return;
+                        }
+                        // turned away by AdmissionChatModel, which answers instead of failing
+                        if (AdmissionChatModel.REJECTED.equals(result.getMetadata().getFinishReason())) {
+                            rejected.set(true);
+                        } else if (StringUtils.hasLength(result.getOutput().getText())) {
+                            firstToken.compareAndSet(0, System.nanoTime());
+                            frames.incrementAndGet();
+                        }
+                    })
+                    .blockLast();
+        } catch (RuntimeException e) {
+            log.warn("Question failed: {}", question, e);
+            return Sample.FAILED;
+        }
+        if (rejected.get()) {
+            return Sample.REJECTED;
+        }
+        var end = System.nanoTime();
+        return new Sample(Outcome.ANSWERED, (firstToken.get() == 0 ? end : firstToken.get()) - start, end - start,
+                frames.get(), tools.stream().mapToInt(tool -> tool.calls).sum(),
+                tools.stream().mapToLong(tool -> tool.resultBytes).sum());
+    }
+
+    private void report(List<Sample> samples, long wallNanos, long cpuNanos, long peakHeap,
+            int peakPlatformThreads) {
+        var succeeded = samples.stream().filter(sample -> sample.outcome() == Outcome.ANSWERED).toList();
+        var rejected = samples.stream().filter(sample -> sample.outcome() == Outcome.REJECTED).count();
+        var firstToken = succeeded.stream().mapToLong(Sample::firstTokenNanos).sorted().toArray();
+        var total = succeeded.stream().mapToLong(Sample::totalNanos).sorted().toArray();
+        log.info("""
+                Assistant load test finished in {} s: {} answers, {} turned away, {} failed
+                  time to first token  p50 {} ms, p95 {} ms, p99 {} ms
+                  total latency        p50 {} ms, p95 {} ms, p99 {} ms
+                  ui frames            {} per answer, {} per second
+                  server cpu/answer    {} ms
+                  tool calls/answer    {}
+                  tool result bytes    {} per answer
+                  server cpu           {} s ({} cores busy on average)
+                  peak heap            {} MB
+                  peak platform threads {} (sessions on {} threads)""",
+                wallNanos / 1_000_000_000, succeeded.size(), rejected, samples.size() - succeeded.size() - rejected,
+                millis(firstToken, 0.5), millis(firstToken, 0.95), millis(firstToken, 0.99),
+                millis(total, 0.5), millis(total, 0.95), millis(total, 0.99),
+                String.format("%.1f", succeeded.stream().mapToInt(Sample::frames).average().orElse(0)),
+                succeeded.stream().mapToLong(Sample::frames).sum() * 1_000_000_000 / wallNanos,
+                succeeded.isEmpty() ? 0 : cpuNanos / succeeded.size() / 1_000_000,
+                String.format("%.1f", succeeded.stream().mapToInt(Sample::toolCalls).average().orElse(0)),
+                Math.round(succeeded.stream().mapToLong(Sample::toolResultBytes).average().orElse(0)),
+                cpuNanos / 1_000_000_000, String.format("%.2f", (double) cpuNanos / wallNanos),
+                peakHeap / (1024 * 1024), peakPlatformThreads, virtualThreads ? "virtual" : "platform");
+    }
+
+    private static long millis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        var index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000;
+    }
+
+    private static long processCpuNanos() {
+        return ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os
+                ? os.getProcessCpuTime()
+                : 0;
+    }
+
+    private enum Outcome {
+        ANSWERED, REJECTED, FAILED
+    }
+
+    private record Sample(Outcome outcome, long firstTokenNanos, long totalNanos, int frames, int toolCalls,
+            long toolResultBytes) {
+
+        static final Sample REJECTED = new Sample(Outcome.REJECTED, 0, 0, 0, 0, 0);
+        static final Sample FAILED = new Sample(Outcome.FAILED, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Counts the calls of a tool and the size of what it sends back to the model.
+     */
+    private static final class MeasuredToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+        private int calls;
+        private long resultBytes;
+
+        MeasuredToolCallback(ToolCallback delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return measure(delegate.call(toolInput));
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            return measure(delegate.call(toolInput, toolContext));
+        }
+
+        private synchronized String measure(String result) {
+            calls++;
+            resultBytes += result.getBytes(StandardCharsets.UTF_8).length;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.orders.ui;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Settings of the {@link AssistantLoadTest}, read from
+ * {@code assistant.load-test.*}.
+ *
+ * @param sessions
+ *            number of chat sessions running at the same time
+ * @param questions
+ *            the questions every session asks, one after the other
+ */
+@ConfigurationProperties("assistant.load-test")
+public record AssistantLoadTestProperties(@DefaultValue("20") int sessions,
+        @DefaultValue({ "How many orders are pending?", "Which orders are the largest?" }) List<String> questions) {
+}
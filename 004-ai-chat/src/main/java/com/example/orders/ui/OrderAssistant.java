@@ -1,29 +1,31 @@
 package com.example.orders.ui;
 
-import com.example.orders.Order;
+import com.example.base.ai.AssistantChatModels;
 import com.example.orders.OrderAiTools;
-import com.example.orders.OrderService;
 import com.vaadin.flow.component.ai.orchestrator.AIOrchestrator;
 import com.vaadin.flow.component.ai.provider.SpringAILLMProvider;
 import com.vaadin.flow.component.button.Button;
-import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.SvgIcon;
 import com.vaadin.flow.component.messages.MessageInput;
 import com.vaadin.flow.component.messages.MessageList;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.popover.Popover;
-import org.springframework.ai.chat.model.ChatModel;
 
 /**
  * A button that opens an AI chat for querying and modifying orders in natural
- * language. Refreshes the given grid whenever the AI modifies order data.
+ * language.
  */
 public class OrderAssistant extends Button {
 
-    private static final String SYSTEM_PROMPT = """
+    static final String SYSTEM_PROMPT = """
             You are an assistant that helps the user manage customer orders shown in a data grid.
             Look up the current order data before answering questions about it.
+            Let the database do the work: filter with searchOrders, count and sum with
+            getOrderTotals, and only load all orders when nothing else fits.
+            Order lists may come as a table: a header row naming the columns, then one
+            row per order with the values separated by "|".
             When modifying orders:
             - "cancel" an order = set its status to CANCELLED
             - "archive" an order = set its status to ARCHIVED
@@ -32,7 +34,7 @@ public class OrderAssistant extends Button {
             After modifying data, briefly confirm what changed.
             """;
 
-    public OrderAssistant(OrderService orderService, ChatModel chatModel, Grid<Order> grid) {
+    public OrderAssistant(OrderAiTools tools, AssistantChatModels chatModels) {
         super(new SvgIcon("icons/sparkles.svg"));
 
         var messageList = new MessageList();
@@ -41,11 +43,17 @@ public class OrderAssistant extends Button {
         var messageInput = new MessageInput();
         messageInput.setWidthFull();
 
-        // tool calls run on a background thread, so ui changes like the grid
-        // refresh must go through ui.access()
-        var tools = new OrderAiTools(orderService,
-                () -> getUI().ifPresent(ui -> ui.access(() -> grid.getDataProvider().refreshAll())));
+        // shown while this user's question waits for a free slot with the model
+        var queueStatus = new Span();
+        queueStatus.setVisible(false);
+        var chatModel = chatModels.forSession(position -> queueStatus.getUI().ifPresent(ui -> ui.access(() -> {
+            queueStatus.setText("The assistant is busy, you are number " + position + " in line");
+            queueStatus.setVisible(position > 0);
+        })));
 
+        // the grid doesn't need a callback from the tools: every write goes
+        // through OrderService, which the view's OrderChangeBus subscription hears.
+        // the tools keep no state, so every session shares the same bean.
         // connects the chat components to the llm and handles streaming, chat
         // memory and tool calls; it is not a component and is not added to any layout
         AIOrchestrator.builder(new SpringAILLMProvider(chatModel), SYSTEM_PROMPT)
@@ -54,7 +62,7 @@ public class OrderAssistant extends Button {
                 .withTools(tools)
                 .build();
 
-        var chatPanel = new VerticalLayout(new H2("AI Assistant"), messageList, messageInput);
+        var chatPanel = new VerticalLayout(new H2("AI Assistant"), messageList, queueStatus, messageInput);
         chatPanel.setWidth("400px");
         chatPanel.setHeight("600px");
         chatPanel.setFlexGrow(1, messageList);
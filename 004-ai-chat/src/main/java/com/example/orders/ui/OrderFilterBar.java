@@ -0,0 +1,93 @@
+package com.example.orders.ui;
+
+import com.example.orders.OrderFilter;
+import com.example.orders.OrderStatus;
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.datepicker.DatePicker;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.textfield.BigDecimalField;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.shared.Registration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Filter inputs above the orders grid. Every change combines all inputs into
+ * one {@link OrderFilter}, which the grid's callbacks pass to the database.
+ */
+class OrderFilterBar extends HorizontalLayout {
+
+    private final ComboBox<OrderStatus> status = new ComboBox<>("Status", OrderStatus.values());
+    private final TextField customer = new TextField("Customer");
+    private final BigDecimalField minAmount = new BigDecimalField("Min amount");
+    private final BigDecimalField maxAmount = new BigDecimalField("Max amount");
+    private final DatePicker dueFrom = new DatePicker("Due from");
+    private final DatePicker dueTo = new DatePicker("Due to");
+    private final Checkbox dueToday = new Checkbox("Due today");
+
+    private final List<Consumer<OrderFilter>> listeners = new CopyOnWriteArrayList<>();
+    // read by the change bus thread, which can't touch the inputs
+    private volatile OrderFilter filter = OrderFilter.NONE;
+
+    OrderFilterBar() {
+        status.setClearButtonVisible(true);
+        status.setItemLabelGenerator(OrderStatus::name);
+        customer.setClearButtonVisible(true);
+        // waits for a pause in typing, instead of a query per keystroke
+        customer.setValueChangeMode(ValueChangeMode.LAZY);
+        minAmount.setWidth("8em");
+        maxAmount.setWidth("8em");
+        dueFrom.setClearButtonVisible(true);
+        dueTo.setClearButtonVisible(true);
+        // "Due today" overrides the date range while it's checked
+        dueToday.addValueChangeListener(event -> {
+            dueFrom.setEnabled(!event.getValue());
+            dueTo.setEnabled(!event.getValue());
+        });
+
+        status.addValueChangeListener(event -> update());
+        customer.addValueChangeListener(event -> update());
+        minAmount.addValueChangeListener(event -> update());
+        maxAmount.addValueChangeListener(event -> update());
+        dueFrom.addValueChangeListener(event -> update());
+        dueTo.addValueChangeListener(event -> update());
+        dueToday.addValueChangeListener(event -> update());
+
+        add(status, customer, minAmount, maxAmount, dueFrom, dueTo, dueToday);
+        setAlignItems(Alignment.BASELINE);
+        setWrap(true);
+        setWidthFull();
+    }
+
+    /**
+     * Returns the filter of the current inputs. Safe to call from any thread.
+     */
+    OrderFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Adds a listener that gets the new filter whenever an input changes it.
+     */
+    Registration addFilterChangeListener(Consumer<OrderFilter> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    private void update() {
+        // the date of "due today" is filled in by each query, so a grid left
+        // open past midnight shows the new day's orders
+        var newFilter = new OrderFilter(status.getValue(), customer.getValue(),
+                minAmount.getValue(), maxAmount.getValue(),
+                dueFrom.getValue(), dueTo.getValue(), dueToday.getValue());
+        // e.g. adding a space to the customer name doesn't change the filter
+        if (!newFilter.equals(filter)) {
+            filter = newFilter;
+            listeners.forEach(listener -> listener.accept(newFilter));
+        }
+    }
+}
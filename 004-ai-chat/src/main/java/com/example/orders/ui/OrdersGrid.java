@@ -3,17 +3,48 @@ package com.example.orders.ui;
 import com.example.orders.Order;
 import com.vaadin.flow.component.badge.Badge;
 import com.vaadin.flow.component.badge.BadgeVariant;
+import com.vaadin.flow.component.dependency.Uses;
 import com.vaadin.flow.component.grid.ColumnTextAlign;
 import com.vaadin.flow.component.grid.Grid;
-import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.data.renderer.LitRenderer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.text.NumberFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 
+// the status badges are rendered in the browser, so no Badge component is ever
+// created on the server; @Uses keeps the badge web component in the bundle
+@Uses(Badge.class)
 public class OrdersGrid extends Grid<Order> {
 
-    public OrdersGrid() {
+    // picks the badge color from the status name, the same theme variants the
+    // Badge component would get on the server
+    private static final String STATUS_BADGE_TEMPLATE = """
+            <vaadin-badge
+                theme="${item.status === 'COMPLETED' ? '%s'
+                        : item.status === 'CANCELLED' ? '%s'
+                        : item.status === 'PENDING' ? '%s' : ''}"
+                style="${item.status === 'ARCHIVED' ? 'opacity: 0.5' : ''}">${item.status}</vaadin-badge>"""
+            .formatted(BadgeVariant.SUCCESS.getVariantName(), BadgeVariant.ERROR.getVariantName(),
+                    BadgeVariant.WARNING.getVariantName());
+
+    // rows the grid fetches again after an edit that only changed rows; a
+    // full refresh refetches whatever the browser shows next, which isn't
+    // known here, so those are only counted. all grids share the meters
+    private final DistributionSummary itemRefreshRows;
+    private final Counter fullRefreshes;
+
+    public OrdersGrid(MeterRegistry meterRegistry) {
+        itemRefreshRows = DistributionSummary.builder("orders.grid.refreshed.rows")
+                .description("Grid rows fetched again after an order edit")
+                .register(meterRegistry);
+        fullRefreshes = Counter.builder("orders.grid.full.refreshes")
+                .description("Order edits that made the grid fetch all visible rows again")
+                .register(meterRegistry);
         var currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
 
         // setSortProperty enables sorting by clicking the column header;
@@ -38,8 +69,10 @@ public class OrdersGrid extends Grid<Order> {
                 .setSortProperty("dueDate")
                 .setAutoWidth(true)
                 .setFlexGrow(0);
-        // a component renderer puts a real component in the cell instead of text
-        addColumn(new ComponentRenderer<>(this::createStatusBadge))
+        // a lit renderer sends only the status name per row and builds the
+        // badge in the browser, instead of a server-side component per row
+        addColumn(LitRenderer.<Order>of(STATUS_BADGE_TEMPLATE)
+                        .withProperty("status", order -> order.getStatus().name()))
                 .setHeader("Status")
                 .setSortProperty("status")
                 .setWidth("130px")
@@ -52,15 +85,25 @@ public class OrdersGrid extends Grid<Order> {
         setSizeFull();
     }
 
-    private Badge createStatusBadge(Order order) {
-        var badge = new Badge(order.getStatus().name());
-        // theme variants control the badge color
-        switch (order.getStatus()) {
-            case COMPLETED -> badge.addThemeVariants(BadgeVariant.SUCCESS);
-            case CANCELLED -> badge.addThemeVariants(BadgeVariant.ERROR);
-            case PENDING -> badge.addThemeVariants(BadgeVariant.WARNING);
-            case ARCHIVED -> badge.getStyle().setOpacity("0.5");
+    /**
+     * Updates the grid after orders changed. Only the rows of the changed orders
+     * are refreshed, unless orders were added or removed, which moves rows and
+     * changes the row count, so everything is fetched again.
+     *
+     * @param structural
+     *            {@code true} if orders were added or removed
+     * @param changedOrders
+     *            freshly loaded copies of the changed orders
+     */
+    public void refreshOrders(boolean structural, List<Order> changedOrders) {
+        if (structural) {
+            getDataProvider().refreshAll();
+            fullRefreshes.increment();
+        } else {
+            // refreshItem finds the row by the order's id and re-renders it
+            // with the new copy, the other rows stay as they are
+            changedOrders.forEach(getDataProvider()::refreshItem);
+            itemRefreshRows.record(changedOrders.size());
         }
-        return badge;
     }
 }
@@ -1,15 +1,27 @@
 package com.example.orders.ui;
 
+import com.example.base.ai.AssistantChatModels;
+import com.example.base.ui.PrefetchProperties;
+import com.example.base.ui.PrefetchingDataProvider;
 import com.example.base.ui.ViewTitle;
+import com.example.orders.Order;
+import com.example.orders.OrderAiTools;
+import com.example.orders.OrderChangeBus;
+import com.example.orders.OrderFilter;
 import com.example.orders.OrderService;
-import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
 import com.vaadin.flow.router.Menu;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouteAlias;
-import org.springframework.ai.chat.model.ChatModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import static com.vaadin.flow.spring.data.VaadinSpringDataHelpers.toSpringPageRequest;
 
@@ -20,30 +32,69 @@ import static com.vaadin.flow.spring.data.VaadinSpringDataHelpers.toSpringPageRe
 @Menu(order = 1, icon = "vaadin:cart", title = "Orders")
 class OrdersView extends HorizontalLayout {
 
-    // spring injects the service and the ai model when creating the view
-    OrdersView(OrderService orderService, ChatModel chatModel) {
-        var dueTodayOnly = new Checkbox("Due today");
+    // spring injects the service and the ai model when creating the view;
+    // exactCountLimit is the table size up to which the grid counts rows exactly
+    OrdersView(OrderService orderService, OrderAiTools tools, OrderChangeBus changeBus, AssistantChatModels chatModels,
+            @Value("${orders.grid.exact-count-limit:100000}") int exactCountLimit,
+            PrefetchProperties prefetchProperties, @Qualifier("applicationTaskExecutor") Executor executor,
+            MeterRegistry meterRegistry) {
+        var filterBar = new OrderFilterBar();
 
         // the grid loads rows lazily: this callback runs whenever the grid
-        // needs a page of data, so it always sees the current toggle state
-        var grid = new OrdersGrid();
-        grid.setItems(query -> {
-            var pageRequest = toSpringPageRequest(query);
-            var orders = dueTodayOnly.getValue()
-                    ? orderService.listDueToday(pageRequest)
-                    : orderService.list(pageRequest);
-            return orders.stream();
+        // needs a page of data, so it always sees the current filter
+        CallbackDataProvider.FetchCallback<Order, Void> fetchOrders = query ->
+                orderService.list(filterBar.getFilter(), toSpringPageRequest(query)).stream();
+
+        // the data provider loads the next page in the scroll direction before
+        // the grid asks for it; the filter bar's filter is safe to read from
+        // its background threads
+        var grid = new OrdersGrid(meterRegistry);
+        if (orderService.estimateCount(OrderFilter.NONE) <= exactCountLimit) {
+            // a count callback gives the grid a correct scrollbar; the counts
+            // are cached until the next write, so refreshes don't re-count
+            var dataProvider = new PrefetchingDataProvider<Order, Void>(fetchOrders,
+                    query -> orderService.count(filterBar.getFilter()), executor, prefetchProperties, "orders",
+                    meterRegistry);
+            grid.setItems(dataProvider);
+            // refreshAll makes the grid re-run the callbacks above
+            filterBar.addFilterChangeListener(filter -> grid.getDataProvider().refreshAll());
+        } else {
+            // too many rows to count on every refresh: start the scrollbar at
+            // an estimate, the grid corrects it when it reaches the real end
+            var dataProvider = new PrefetchingDataProvider<Order, Void>(fetchOrders, executor, prefetchProperties,
+                    "orders", meterRegistry);
+            var dataView = grid.setItems(dataProvider);
+            dataView.setItemCountUnknown();
+            dataView.setItemCountEstimate(Math.max(1, orderService.estimateCount(OrderFilter.NONE)));
+            filterBar.addFilterChangeListener(filter -> {
+                dataView.setItemCountEstimate(Math.max(1, orderService.estimateCount(filter)));
+                grid.getDataProvider().refreshAll();
+            });
+        }
+        // refreshes the grid when anyone changes orders, including this
+        // user's assistant; changes arrive in batches on a background thread,
+        // so the changed rows are loaded first and the grid is updated in
+        // ui.access(), which @Push then sends to the browser
+        addAttachListener(attach -> {
+            var ui = attach.getUI();
+            var subscription = changeBus.subscribe(change -> {
+                // with a filter, an edit can move an order into or out of the
+                // matching rows, which only a full refresh shows
+                var structural = change.structural() || !filterBar.getFilter().isEmpty();
+                var changedOrders = structural ? List.<Order>of() : orderService.findAllById(change.ids());
+                return ui.access(() -> grid.refreshOrders(structural, changedOrders));
+            });
+            addDetachListener(detach -> {
+                subscription.remove();
+                detach.unregisterListener();
+            });
         });
-        // refreshAll makes the grid re-run the callback above
-        dueTodayOnly.addValueChangeListener(event -> grid.getDataProvider().refreshAll());
-        // pushes the checkbox to the right edge of the title row
-        dueTodayOnly.getStyle().set("margin-left", "auto");
 
         var viewTitle = new ViewTitle("Orders");
-        var assistantBtn = new OrderAssistant(orderService, chatModel, grid);
-        viewTitle.add(assistantBtn, dueTodayOnly);
+        var assistantBtn = new OrderAssistant(tools, chatModels);
+        viewTitle.add(assistantBtn);
 
-        var ordersPanel = new VerticalLayout(viewTitle, grid);
+        var ordersPanel = new VerticalLayout(viewTitle, filterBar, grid);
         ordersPanel.setSizeFull();
 
         setSizeFull();
@@ -0,0 +1,14 @@
+-- matches the Order entity; allocation size 50 is the entity's id pool size
+create sequence customer_order_seq start with 1 increment by 50;
+
+create table customer_order (
+    order_id       bigint         not null,
+    customer_name  varchar(255)   not null,
+    item           varchar(255)   not null,
+    amount         numeric(10, 2) not null,
+    due_date       date           not null,
+    status         varchar(20)    not null,
+    completed_date date,
+    constraint pk_customer_order primary key (order_id),
+    constraint ck_customer_order_status check (status in ('PENDING', 'COMPLETED', 'CANCELLED', 'ARCHIVED'))
+);
@@ -0,0 +1,12 @@
+-- one index per access path of the orders grid and the ai tools, so sorting
+-- and filtering read rows in index order instead of scanning and sorting the
+-- table. order_id is the tie-breaker OrderService appends to every sort.
+
+-- "Due today" filter, and sorting by due date
+create index ix_customer_order_due_date on customer_order (due_date, order_id);
+-- ai tools filtering by status and due date range
+create index ix_customer_order_status_due_date on customer_order (status, due_date);
+-- grid column sorts
+create index ix_customer_order_customer_name on customer_order (customer_name, order_id);
+create index ix_customer_order_amount on customer_order (amount, order_id);
+create index ix_customer_order_completed_date on customer_order (completed_date, order_id);
@@ -0,0 +1,13 @@
+-- order counts and amounts per status and due date, maintained by
+-- OrderService on every write so totals can be read without scanning orders
+create table order_aggregate (
+    status       varchar(20)    not null,
+    due_date     date           not null,
+    order_count  bigint         not null,
+    total_amount numeric(19, 2) not null,
+    constraint pk_order_aggregate primary key (status, due_date)
+);
+
+insert into order_aggregate (status, due_date, order_count, total_amount)
+select status, due_date, count(*), sum(amount) from customer_order
+group by status, due_date;
@@ -0,0 +1,16 @@
+-- cold storage for archived and long-completed orders, moved here in batches
+-- by OrderArchiver so the hot customer_order table stays small
+create table customer_order_archive (
+    order_id       bigint         not null,
+    customer_name  varchar(255)   not null,
+    item           varchar(255)   not null,
+    amount         numeric(10, 2) not null,
+    due_date       date           not null,
+    status         varchar(20)    not null,
+    completed_date date,
+    archived_at    timestamp      not null,
+    constraint pk_customer_order_archive primary key (order_id)
+);
+
+create index ix_customer_order_archive_due_date on customer_order_archive (due_date, order_id);
+create index ix_customer_order_archive_customer_name on customer_order_archive (customer_name, order_id);
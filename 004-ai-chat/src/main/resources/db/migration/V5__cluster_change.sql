@@ -0,0 +1,13 @@
+-- order changes made on one node, polled by the other nodes when
+-- cluster.transport=jdbc; old rows are deleted after cluster.jdbc.retention
+create table cluster_change (
+    change_id  bigint generated by default as identity,
+    node_id    varchar(36)   not null,
+    topic      varchar(64)   not null,
+    structural boolean       not null,
+    ids        varchar(8000) not null,
+    created_at timestamp     not null,
+    constraint pk_cluster_change primary key (change_id)
+);
+
+create index ix_cluster_change_created_at on cluster_change (created_at);
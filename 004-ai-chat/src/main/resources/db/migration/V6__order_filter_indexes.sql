@@ -0,0 +1,11 @@
+-- indexes for the orders grid's filter bar, which combines a status with an
+-- amount or due date range. order_id is last again so a filtered page sorted
+-- by the range column reads rows in index order. the customer filter matches
+-- anywhere in the name, which no index can help with; the other criteria
+-- narrow the rows it has to check.
+
+-- status and amount range, e.g. "pending orders over $100"
+create index ix_customer_order_status_amount on customer_order (status, amount, order_id);
+-- status and due date range; replaces the index from V2 without the tie-breaker
+drop index ix_customer_order_status_due_date;
+create index ix_customer_order_status_due_date on customer_order (status, due_date, order_id);
@@ -0,0 +1,221 @@
+package com.example.base.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Takes slots from an admission with small limits, one session object per
+ * user, and checks who runs, who waits in which place and who is turned away.
+ */
+class AssistantAdmissionTest {
+
+    private static final IntConsumer IGNORE_POSITION = position -> {
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void requestsBeyondTheGlobalLimitWaitForAFreeSlot() throws Exception {
+        var admission = admission(2, 2, 10, Duration.ofMinutes(1));
+
+        var first = acquire(admission, "alice");
+        acquire(admission, "bob");
+        var waiting = waitInLine(admission, "carol", IGNORE_POSITION);
+
+        assertThat(waiting).isNotDone();
+        assertThat(gauge("assistant.admission.running")).isEqualTo(2);
+        assertThat(gauge("assistant.admission.queued")).isEqualTo(1);
+
+        first.release();
+
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(gauge("assistant.admission.running")).isEqualTo(2);
+        assertThat(gauge("assistant.admission.queued")).isZero();
+    }
+
+    @Test
+    void requestsBeyondTheSessionLimitWaitWhileOtherUsersRun() throws Exception {
+        var admission = admission(5, 1, 10, Duration.ofMinutes(1));
+
+        var first = acquire(admission, "alice");
+        var second = waitInLine(admission, "alice", IGNORE_POSITION);
+        acquire(admission, "bob");
+
+        assertThat(second).isNotDone();
+        assertThat(gauge("assistant.admission.running")).isEqualTo(2);
+
+        first.release();
+
+        assertThat(second.get(1, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void waitingRequestsRunInTheOrderTheyCameAndAreToldTheirPlace() throws Exception {
+        var admission = admission(1, 1, 10, Duration.ofMinutes(1));
+        var running = acquire(admission, "alice");
+
+        var bobPositions = new CopyOnWriteArrayList<Integer>();
+        var carolPosition = new AtomicInteger();
+        var bob = waitInLine(admission, "bob", bobPositions::add);
+        var carol = waitInLine(admission, "carol", carolPosition::set);
+
+        assertThat(bobPositions).containsOnly(1);
+        assertThat(carolPosition).hasValue(2);
+
+        running.release();
+
+        var bobPermit = bob.get(1, TimeUnit.SECONDS);
+        assertThat(carol).isNotDone();
+        assertThat(bobPositions).endsWith(0);
+        assertThat(carolPosition).hasValue(1);
+
+        bobPermit.release();
+
+        assertThat(carol.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(carolPosition).hasValue(0);
+    }
+
+    @Test
+    void waitingRequestsSkipOnlyThoseWhoseUserIsAtTheLimit() throws Exception {
+        var admission = admission(2, 1, 10, Duration.ofMinutes(1));
+        var alice = acquire(admission, "alice");
+        acquire(admission, "bob");
+
+        var bobAgain = waitInLine(admission, "bob", IGNORE_POSITION);
+        var carol = waitInLine(admission, "carol", IGNORE_POSITION);
+
+        alice.release();
+
+        assertThat(carol.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(bobAgain).isNotDone();
+    }
+
+    @Test
+    void requestsThatWaitTooLongAreTurnedAway() throws Exception {
+        var admission = admission(1, 1, 10, Duration.ofMillis(100));
+        acquire(admission, "alice");
+
+        var position = new AtomicInteger();
+        var waiting = waitInLine(admission, "bob", position::set);
+
+        assertThatThrownBy(() -> waiting.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(AdmissionRejectedException.class);
+        // the queue hears of the timeout on another thread
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> {
+            assertThat(position).hasValue(0);
+            assertThat(gauge("assistant.admission.queued")).isZero();
+            assertThat(rejected("timeout")).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void requestsAreTurnedAwayRightAwayWhenTheQueueIsFull() {
+        var admission = admission(1, 1, 1, Duration.ofMinutes(1));
+        acquire(admission, "alice");
+        waitInLine(admission, "bob", IGNORE_POSITION);
+
+        assertThatThrownBy(() -> acquire(admission, "carol")).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(gauge("assistant.admission.queued")).isEqualTo(1);
+        assertThat(rejected("queue-full")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedRequestsAreAnsweredWithTheReason() {
+        var admission = admission(1, 1, 0, Duration.ofMinutes(1));
+        acquire(admission, "alice");
+        var model = new AdmissionChatModel(answering(Flux.never()), admission, "bob", IGNORE_POSITION);
+
+        var answer = model.stream(new Prompt("How many orders are pending?")).blockLast(Duration.ofSeconds(1));
+
+        assertThat(answer).isNotNull();
+        assertThat(answer.getResult().getMetadata().getFinishReason()).isEqualTo(AdmissionChatModel.REJECTED);
+    }
+
+    @Test
+    void aFailedStreamReleasesItsSlot() {
+        var admission = admission(1, 1, 10, Duration.ofMinutes(1));
+        var model = new AdmissionChatModel(answering(Flux.error(new IllegalStateException("model down"))),
+                admission, "alice", IGNORE_POSITION);
+
+        assertThatThrownBy(() -> model.stream(new Prompt("Hello")).blockLast(Duration.ofSeconds(1)))
+                .hasMessageContaining("model down");
+
+        assertThat(gauge("assistant.admission.running")).isZero();
+        assertThat(acquire(admission, "bob")).isNotNull();
+    }
+
+    @Test
+    void aCancelledStreamReleasesItsSlot() {
+        var admission = admission(1, 1, 10, Duration.ofMinutes(1));
+        var model = new AdmissionChatModel(answering(Flux.never()), admission, "alice", IGNORE_POSITION);
+
+        var subscription = model.stream(new Prompt("Hello")).subscribe();
+        assertThat(gauge("assistant.admission.running")).isEqualTo(1);
+
+        // the user left while the answer was streaming
+        subscription.dispose();
+
+        await().atMost(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(gauge("assistant.admission.running")).isZero());
+        assertThat(acquire(admission, "bob")).isNotNull();
+    }
+
+    private AssistantAdmission admission(int maxConcurrent, int maxPerSession, int maxQueued,
+            Duration queueTimeout) {
+        return new AssistantAdmission(new AdmissionProperties(maxConcurrent, maxPerSession, maxQueued, queueTimeout),
+                meterRegistry);
+    }
+
+    // for requests that are expected to run right away
+    private static AssistantAdmission.Permit acquire(AssistantAdmission admission, String session) {
+        return admission.acquire(session, IGNORE_POSITION).block(Duration.ofSeconds(1));
+    }
+
+    private static CompletableFuture<AssistantAdmission.Permit> waitInLine(AssistantAdmission admission,
+            String session, IntConsumer position) {
+        return admission.acquire(session, position).toFuture();
+    }
+
+    private static ChatModel answering(Flux<ChatResponse> answer) {
+        return new ChatModel() {
+
+            @Override
+            public ChatResponse call(Prompt prompt) {
+                return new ChatResponse(List.of(new Generation(new AssistantMessage("Hello"))));
+            }
+
+            @Override
+            public Flux<ChatResponse> stream(Prompt prompt) {
+                return answer;
+            }
+        };
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("assistant.admission.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.base.data;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs transactions against a primary and a replica database that only differ
+ * in the name they return, and checks which one each transaction reads from.
+ */
+class ReadOnlyRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        var routing = routing(Duration.ofHours(1));
+
+        assertThat(routing.read(true)).isEqualTo("replica");
+        assertThat(routed("replica", "read-only")).isEqualTo(1);
+    }
+
+    @Test
+    void otherTransactionsReadFromThePrimary() {
+        var routing = routing(Duration.ofHours(1));
+
+        assertThat(routing.read(false)).isEqualTo("primary");
+        assertThat(routed("primary", "read-write")).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromThePrimaryRightAfterAWrite() {
+        var routing = routing(Duration.ofHours(1));
+
+        routing.read(false);
+
+        assertThat(routing.read(true)).isEqualTo("primary");
+        assertThat(routed("primary", "recent-write")).isEqualTo(1);
+        assertThat(routed("replica", "read-only")).isZero();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplicaAgainOnceTheLagToleranceHasPassed() throws InterruptedException {
+        var routing = routing(Duration.ofMillis(100));
+
+        routing.read(false);
+        assertThat(routing.read(true)).isEqualTo("primary");
+
+        Thread.sleep(200);
+        assertThat(routing.read(true)).isEqualTo("replica");
+    }
+
+    private Routing routing(Duration lagTolerance) {
+        var dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(new ReadOnlyRoutingDataSource(database("primary"), database("replica"),
+                lagTolerance, meterRegistry));
+        // otherwise the proxy takes a connection to look these up, which counts as a write
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+        return new Routing(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists database_name (name varchar(20))");
+        jdbc.update("delete from database_name");
+        jdbc.update("insert into database_name values (?)", name);
+        return dataSource;
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("datasource.connections.routed").tag("target", target).tag("reason", reason)
+                .counter().count();
+    }
+
+    private record Routing(JdbcTemplate jdbc, DataSourceTransactionManager transactionManager) {
+
+        String read(boolean readOnly) {
+            var transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(readOnly);
+            return transaction.execute(status -> jdbc.queryForObject("select name from database_name", String.class));
+        }
+    }
+}
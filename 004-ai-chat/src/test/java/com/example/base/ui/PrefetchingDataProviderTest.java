@@ -0,0 +1,115 @@
+package com.example.base.ui;
+
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.VaadinRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Scrolls a grid's data provider down through rows numbered by their offset,
+ * one round trip (request) at a time, and checks which pages it loads ahead
+ * and which fetches it serves from them. Prefetches run on the calling thread,
+ * so they have finished when the fetch that started them returns.
+ */
+class PrefetchingDataProviderTest {
+
+    private static final int PAGE_SIZE = 50;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // the offsets the provider read from the back end, in order
+    private final List<Integer> backEndFetches = new CopyOnWriteArrayList<>();
+    private final PrefetchingDataProvider<Integer, Void> dataProvider = new PrefetchingDataProvider<>(query -> {
+        backEndFetches.add(query.getOffset());
+        return IntStream.range(query.getOffset(), query.getOffset() + query.getLimit()).boxed();
+    }, Runnable::run, new PrefetchProperties(true, 2, 6), "test", meterRegistry);
+
+    @AfterEach
+    void endRoundTrip() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    void fetchesOfOneRoundTripLoadOnePageAhead() {
+        roundTrip();
+        fetch(0);
+        fetch(PAGE_SIZE);
+
+        // moving a page within one round trip says nothing about the scroll speed
+        assertThat(backEndFetches).containsExactly(0, PAGE_SIZE, 2 * PAGE_SIZE);
+        assertThat(requests("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void aQuickNextRoundTripIsServedAheadAndLoadsMorePagesAhead() {
+        roundTrip();
+        fetch(0);
+        fetch(PAGE_SIZE);
+
+        roundTrip();
+        var rows = fetch(2 * PAGE_SIZE);
+
+        assertThat(rows).first().isEqualTo(2 * PAGE_SIZE);
+        assertThat(rows).hasSize(PAGE_SIZE);
+        // two pages in one round trip, well within a second: scrolling fast
+        assertThat(backEndFetches).containsExactly(0, PAGE_SIZE, 2 * PAGE_SIZE, 3 * PAGE_SIZE, 4 * PAGE_SIZE);
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(pages("used")).isEqualTo(1);
+    }
+
+    @Test
+    void refreshAllDropsThePrefetchedPages() {
+        roundTrip();
+        fetch(0);
+        fetch(PAGE_SIZE);
+
+        dataProvider.refreshAll();
+        roundTrip();
+        fetch(2 * PAGE_SIZE);
+
+        // the prefetched page may hold rows from before the change, so it is read again
+        assertThat(backEndFetches).containsExactly(0, PAGE_SIZE, 2 * PAGE_SIZE, 2 * PAGE_SIZE);
+        assertThat(requests("hit")).isZero();
+        assertThat(pages("wasted")).isEqualTo(1);
+    }
+
+    @Test
+    void refreshItemDropsThePrefetchedPages() {
+        roundTrip();
+        fetch(0);
+        fetch(PAGE_SIZE);
+
+        dataProvider.refreshItem(PAGE_SIZE + 1);
+        roundTrip();
+        fetch(2 * PAGE_SIZE);
+
+        assertThat(backEndFetches).containsExactly(0, PAGE_SIZE, 2 * PAGE_SIZE, 2 * PAGE_SIZE);
+        assertThat(requests("hit")).isZero();
+        assertThat(pages("wasted")).isEqualTo(1);
+    }
+
+    // the provider tells round trips apart by the current request
+    private static void roundTrip() {
+        CurrentInstance.set(VaadinRequest.class, mock(VaadinRequest.class));
+    }
+
+    private List<Integer> fetch(int offset) {
+        return dataProvider.fetch(new Query<>(offset, PAGE_SIZE, List.of(), null, null)).toList();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("grid.prefetch.requests").tag("result", result).counter().count();
+    }
+
+    private double pages(String outcome) {
+        return meterRegistry.get("grid.prefetch.pages").tag("outcome", outcome).counter().count();
+    }
+}
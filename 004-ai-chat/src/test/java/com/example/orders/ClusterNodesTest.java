@@ -0,0 +1,68 @@
+package com.example.orders;
+
+import com.example.Application;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts two nodes of the application side by side on one database, once per
+ * cluster transport, and checks that an order saved on one node drops the
+ * caches of the other.
+ */
+class ClusterNodesTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @ParameterizedTest
+    @ValueSource(strings = { "in-memory", "jdbc" })
+    void saveOnOneNodeInvalidatesTheOther(String transport) throws InterruptedException {
+        try (var first = startNode(transport); var second = startNode(transport)) {
+            var dataVersion = second.getBean(OrderDataVersion.class);
+            var countCache = second.getBean(OrderCountCache.class);
+            var counts = new AtomicInteger();
+            countCache.exact("orders", counts::incrementAndGet);
+            countCache.exact("orders", counts::incrementAndGet);
+            assertThat(counts).hasValue(1);
+            var versionBefore = dataVersion.current();
+
+            first.getBean(OrderService.class).save(new Order("Cluster Test", "Webcam", new BigDecimal("49.90"),
+                    LocalDate.now(), OrderStatus.PENDING));
+
+            await(() -> dataVersion.current() > versionBefore);
+            // the listeners of one change run one after the other
+            await(() -> countCache.exact("orders", counts::incrementAndGet) > 1);
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String transport) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .profiles("mock-llm")
+                .properties("vaadin.launch-browser=false",
+                        "cluster.transport=" + transport,
+                        "cluster.jdbc.poll-interval=100ms",
+                        // the nodes of one run share a database, the runs don't
+                        "spring.datasource.url=jdbc:h2:mem:cluster-" + transport + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa")
+                .run();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("reached within %s", TIMEOUT).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
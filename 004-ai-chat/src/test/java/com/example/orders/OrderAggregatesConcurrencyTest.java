@@ -0,0 +1,64 @@
+package com.example.orders;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Changes the status of the same orders from several threads at once and
+ * checks that the {@code order_aggregate} totals still match the orders.
+ */
+@SpringBootTest(properties = "vaadin.launch-browser=false")
+@ActiveProfiles("mock-llm")
+class OrderAggregatesConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 25;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderAggregates aggregates;
+
+    @Test
+    void concurrentStatusChangesKeepTotalsInStep() throws Exception {
+        var ids = orderService.list(OrderFilter.NONE, PageRequest.of(0, 10)).stream().map(Order::getId).toList();
+        var statuses = new OrderStatus[] { OrderStatus.PENDING, OrderStatus.COMPLETED, OrderStatus.CANCELLED };
+
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                var first = thread;
+                tasks.add(() -> {
+                    for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                        orderService.updateStatus(ids, statuses[(first + i) % statuses.length]);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        }
+
+        for (var status : OrderStatus.values()) {
+            var expected = orderRepository.totalsMatching(new OrderFilter(status, null, null, null, null, null));
+            var actual = aggregates.totals(status, null, null);
+            assertThat(actual.count()).as("%s orders", status).isEqualTo(expected.count());
+            assertThat(actual.amount()).as("%s amount", status).isEqualByComparingTo(expected.amount());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks with H2's query plans that the orders grid's sorts and filters read
+ * the indexes from the migrations instead of scanning customer_order. The
+ * statements have the shape of the ones Hibernate generates for
+ * {@link OrderService#list} and the AI tools.
+ */
+@SpringBootTest(properties = "vaadin.launch-browser=false")
+@ActiveProfiles("mock-llm")
+class OrderIndexTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @CsvSource({
+            "customer_name, IX_CUSTOMER_ORDER_CUSTOMER_NAME",
+            "amount, IX_CUSTOMER_ORDER_AMOUNT",
+            "due_date, IX_CUSTOMER_ORDER_DUE_DATE",
+            "completed_date, IX_CUSTOMER_ORDER_COMPLETED_DATE" })
+    void columnSortReadsIndexInOrder(String column, String index) {
+        var plan = explain("select * from customer_order order by " + column + ", order_id"
+                + " offset 0 rows fetch next 50 rows only");
+
+        assertThat(plan).containsIgnoringCase(index).containsIgnoringCase("index sorted");
+    }
+
+    @Test
+    void dueTodayFilterUsesDueDateIndex() {
+        var plan = explain("select * from customer_order where due_date = current_date order by due_date, order_id");
+
+        assertThat(plan).containsIgnoringCase("IX_CUSTOMER_ORDER_DUE_DATE");
+    }
+
+    @Test
+    void statusAndDueDateFilterUsesCompositeIndex() {
+        var plan = explain("select * from customer_order where status = 'PENDING'"
+                + " and due_date between current_date and current_date + 7");
+
+        assertThat(plan).containsIgnoringCase("IX_CUSTOMER_ORDER_STATUS_DUE_DATE");
+    }
+
+    @Test
+    void statusAndAmountFilterUsesCompositeIndex() {
+        var plan = explain("select * from customer_order where status = 'PENDING' and amount >= 100");
+
+        assertThat(plan).containsIgnoringCase("IX_CUSTOMER_ORDER_STATUS_AMOUNT");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.orders;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encodes 10k orders in both tool result formats and logs the size of the
+ * result and the time to encode it, after a warm-up so the JIT has compiled
+ * both encoders.
+ */
+class OrderResultFormatBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderResultFormatBenchmarkTest.class);
+
+    private static final int ORDERS = 10_000;
+    private static final int WARM_UP_RUNS = 20;
+    private static final int MEASURED_RUNS = 20;
+
+    @Test
+    void tableIsSmallerThanJson() {
+        var orders = orders();
+
+        var json = measure(OrderResultFormat.JSON, orders);
+        var table = measure(OrderResultFormat.TABLE, orders);
+
+        log.info("{} orders: JSON {} bytes in {} ms, TABLE {} bytes in {} ms", ORDERS, json.bytes(),
+                String.format("%.2f", json.millis()), table.bytes(), String.format("%.2f", table.millis()));
+        // the field names alone are more than half of the json
+        assertThat(table.bytes()).isLessThan(json.bytes() / 2);
+    }
+
+    private static Result measure(OrderResultFormat format, List<Order> orders) {
+        var bytes = 0;
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            bytes = format.encode(orders).getBytes(StandardCharsets.UTF_8).length;
+        }
+        var start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            format.encode(orders);
+        }
+        var millis = (System.nanoTime() - start) / 1e6 / MEASURED_RUNS;
+        return new Result(bytes, millis);
+    }
+
+    private static List<Order> orders() {
+        var statuses = OrderStatus.values();
+        var today = LocalDate.now();
+        var orders = new ArrayList<Order>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            var order = new Order("Customer " + (i % 1000), "Item " + (i % 15), BigDecimal.valueOf(500 + i % 20000, 2),
+                    today.plusDays(i % 40 - 20), statuses[i % statuses.length]);
+            ReflectionTestUtils.setField(order, "id", (long) i + 1);
+            if (order.getStatus() == OrderStatus.COMPLETED) {
+                order.setCompletedDate(today.minusDays(i % 30));
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private record Result(int bytes, double millis) {
+    }
+}
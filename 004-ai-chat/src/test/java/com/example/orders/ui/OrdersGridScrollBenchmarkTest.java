@@ -0,0 +1,129 @@
+package com.example.orders.ui;
+
+import com.example.orders.Order;
+import com.example.orders.OrderStatus;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.badge.Badge;
+import com.vaadin.flow.component.badge.BadgeVariant;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.internal.ConstantPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scrolls a grid over 100k orders from top to bottom on the server and
+ * compares the status column as a LitRenderer (the current {@link OrdersGrid})
+ * with the server-side Badge per row it replaced: the state nodes the grid
+ * holds, the bytes of the changes sent to the browser, and the memory
+ * allocated while scrolling.
+ */
+class OrdersGridScrollBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrdersGridScrollBenchmarkTest.class);
+
+    private static final int ORDERS = 100_000;
+    private static final int VIEWPORT = 50;
+    // scroll positions spread evenly from the first to the last row
+    private static final int STEPS = 200;
+
+    @AfterEach
+    void clearCurrentUi() {
+        UI.setCurrent(null);
+    }
+
+    @Test
+    void litRendererKeepsFewerNodesAndSendsLess() {
+        var orders = orders();
+
+        var lit = scroll(new OrdersGrid(new SimpleMeterRegistry()), orders);
+        var component = scroll(componentRendererGrid(), orders);
+
+        log.info("Scrolling {} orders in {} steps: LitRenderer {}, ComponentRenderer {}", ORDERS, STEPS, lit,
+                component);
+        assertThat(lit.maxStateNodes()).isLessThan(component.maxStateNodes());
+        assertThat(lit.payloadBytes()).isLessThan(component.payloadBytes());
+    }
+
+    private static Result scroll(Grid<Order> grid, List<Order> orders) {
+        var ui = new UI();
+        UI.setCurrent(ui);
+        ui.add(grid);
+        grid.setItems(orders);
+
+        var tree = ui.getInternals().getStateTree();
+        var constantPool = new ConstantPool();
+        var allocatedBefore = allocatedBytes();
+        long payloadBytes = 0;
+        int maxStateNodes = 0;
+        for (int step = 0; step < STEPS; step++) {
+            var start = (int) ((long) step * (orders.size() - VIEWPORT) / (STEPS - 1));
+            grid.getDataCommunicator().setViewportRange(start, VIEWPORT);
+            // what a server round trip does before writing the response
+            tree.runExecutionsBeforeClientResponse();
+            var changes = new ArrayList<String>();
+            tree.collectChanges(change -> changes.add(change.toJson(constantPool).toString()));
+            payloadBytes += changes.stream().mapToInt(String::length).sum();
+
+            var nodes = new AtomicInteger();
+            grid.getElement().getNode().visitNodeTree(node -> nodes.incrementAndGet());
+            maxStateNodes = Math.max(maxStateNodes, nodes.get());
+        }
+        return new Result(maxStateNodes, payloadBytes, allocatedBytes() - allocatedBefore);
+    }
+
+    // the status column as it was before: one Badge component per rendered row
+    private static Grid<Order> componentRendererGrid() {
+        var grid = new Grid<Order>();
+        grid.addColumn(Order::getId).setHeader("ID");
+        grid.addColumn(Order::getCustomerName).setHeader("Customer");
+        grid.addColumn(Order::getItem).setHeader("Item");
+        grid.addColumn(Order::getAmount).setHeader("Amount");
+        grid.addColumn(Order::getDueDate).setHeader("Due Date");
+        grid.addColumn(new ComponentRenderer<>(order -> {
+            var badge = new Badge(order.getStatus().name());
+            switch (order.getStatus()) {
+                case COMPLETED -> badge.addThemeVariants(BadgeVariant.SUCCESS);
+                case CANCELLED -> badge.addThemeVariants(BadgeVariant.ERROR);
+                case PENDING -> badge.addThemeVariants(BadgeVariant.WARNING);
+                case ARCHIVED -> badge.getStyle().set("opacity", "0.5");
+            }
+            return badge;
+        })).setHeader("Status");
+        grid.addColumn(Order::getCompletedDate).setHeader("Completed");
+        return grid;
+    }
+
+    private static List<Order> orders() {
+        var statuses = OrderStatus.values();
+        var today = LocalDate.now();
+        var orders = new ArrayList<Order>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            var order = new Order("Customer " + (i % 1000), "Item " + (i % 15), BigDecimal.valueOf(i % 20000, 2),
+                    today.plusDays(i % 40 - 20), statuses[i % statuses.length]);
+            ReflectionTestUtils.setField(order, "id", (long) i + 1);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private record Result(int maxStateNodes, long payloadBytes, long allocatedBytes) {
+    }
+}